@@ -0,0 +1,111 @@
+package com.example.foodabilities.benchmarks;
+
+import com.example.foodabilities.Ability;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.potion.PotionEffect;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The interact and consume handlers as they were before infused foods were
+ * classified on Material, kept here so {@link ConsumeBenchmark} can report the
+ * old path next to the current one. Every call copies the item meta twice,
+ * once to check the model data marker and once to read the ability name tag.
+ * Only the ability branch is kept; items infused from potions are not built.
+ */
+final class BaselineConsume {
+    private static final int INFUSED_MODEL_DATA = 90210;
+
+    private final NamespacedKey keyAbilityId;
+    private final Map<String, Ability> abilityById = new HashMap<>();
+
+    BaselineConsume(Plugin plugin, ConfigurationSection abilities) {
+        this.keyAbilityId = new NamespacedKey(plugin, "ability");
+        for (String id : abilities.getKeys(false)) {
+            abilityById.put(id.toLowerCase(Locale.ROOT), Ability.fromSection(id, abilities.getConfigurationSection(id), plugin.getLogger()));
+        }
+    }
+
+    Ability getAbility(String id) {
+        return abilityById.get(id.toLowerCase(Locale.ROOT));
+    }
+
+    /** An infused food tagged with the ability name, as the old recipe result was built. */
+    ItemStack buildItem(Material base, Ability ability) {
+        ItemStack result = new ItemStack(base, 1);
+        ItemMeta meta = result.getItemMeta();
+        if (meta == null) return result;
+        meta.setDisplayName(ability.getDisplayName());
+        List<String> lore = new ArrayList<>(ability.getLoreLines());
+        if (lore.isEmpty()) lore.add("Right-click or eat to gain effects");
+        meta.setLore(lore);
+        meta.addEnchant(Enchantment.LUCK, 1, true);
+        meta.setCustomModelData(INFUSED_MODEL_DATA);
+        meta.getPersistentDataContainer().set(keyAbilityId, PersistentDataType.STRING, ability.getId());
+        result.setItemMeta(meta);
+        return result;
+    }
+
+    void onInteract(PlayerInteractEvent event) {
+        Action action = event.getAction();
+        if (action != Action.RIGHT_CLICK_AIR && action != Action.RIGHT_CLICK_BLOCK) return;
+        ItemStack item = event.getItem();
+        if (item == null) return;
+        if (!isInfusedFood(item)) return;
+
+        Player player = event.getPlayer();
+        applyEffects(player, item);
+        if (!player.getGameMode().name().equalsIgnoreCase("CREATIVE")) {
+            ItemStack hand = event.getItem();
+            if (hand != null) {
+                int amt = hand.getAmount();
+                if (amt <= 1) {
+                    player.getInventory().setItem(event.getHand(), null);
+                } else {
+                    hand.setAmount(amt - 1);
+                }
+            }
+        }
+        event.setCancelled(true);
+    }
+
+    void onConsume(PlayerItemConsumeEvent event) {
+        ItemStack item = event.getItem();
+        if (!isInfusedFood(item)) return;
+        applyEffects(event.getPlayer(), item);
+    }
+
+    private static boolean isInfusedFood(ItemStack stack) {
+        if (stack == null) return false;
+        ItemMeta meta = stack.getItemMeta();
+        if (meta == null) return false;
+        return meta.hasCustomModelData() && meta.getCustomModelData() == INFUSED_MODEL_DATA;
+    }
+
+    private void applyEffects(Player player, ItemStack infusedFood) {
+        ItemMeta meta = infusedFood.getItemMeta();
+        if (meta == null) return;
+        String abilityId = meta.getPersistentDataContainer().get(keyAbilityId, PersistentDataType.STRING);
+        if (abilityId == null) return;
+        Ability ability = abilityById.get(abilityId.toLowerCase(Locale.ROOT));
+        if (ability == null) return;
+        for (PotionEffect effect : ability.getPotionEffects()) {
+            player.addPotionEffect(effect);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.foodabilities.benchmarks;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.example.foodabilities.FoodAbilitiesPlugin;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.inventory.PrepareItemCraftEvent;
+import org.bukkit.inventory.CraftingInventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.inventory.ShapelessRecipe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A MockBukkit server with FoodAbilities loaded from a generated config of the
+ * requested size. Stands in for a real server so the listeners can be driven
+ * directly from JMH.
+ */
+final class BenchmarkServer {
+    private static final Material[] INGREDIENTS = {
+        Material.SUGAR, Material.NETHER_STAR, Material.GLOWSTONE_DUST, Material.REDSTONE,
+        Material.BLAZE_POWDER, Material.GHAST_TEAR, Material.RABBIT_FOOT, Material.PHANTOM_MEMBRANE
+    };
+
+    final ServerMock server;
+    final FoodAbilitiesPlugin plugin;
+
+    private BenchmarkServer(ServerMock server, FoodAbilitiesPlugin plugin) {
+        this.server = server;
+        this.plugin = plugin;
+    }
+
+    static BenchmarkServer start(int abilityCount, int recipeCount) {
+        ServerMock server = MockBukkit.mock();
+        FoodAbilitiesPlugin plugin = MockBukkit.load(FoodAbilitiesPlugin.class);
+        BenchmarkServer bench = new BenchmarkServer(server, plugin);
+        bench.writeConfig(config(abilityCount, recipeCount));
+        plugin.reloadPluginConfig();
+        return bench;
+    }
+
+    void stop() {
+        MockBukkit.unmock();
+    }
+
+    void writeConfig(YamlConfiguration config) {
+        try {
+            config.save(new File(plugin.getDataFolder(), "config.yml"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String abilityId(int index) {
+        return "tier_" + index;
+    }
+
+    /** Key of the n-th (1-based) generated config recipe. */
+    NamespacedKey recipeKey(int abilityCount, int recipeIndex) {
+        return new NamespacedKey(plugin, "cfg_" + abilityId((recipeIndex - 1) % abilityCount) + "_" + recipeIndex);
+    }
+
+    static YamlConfiguration config(int abilityCount, int recipeCount) {
+        YamlConfiguration config = new YamlConfiguration();
+        for (int i = 0; i < abilityCount; i++) {
+            String path = "abilities." + abilityId(i);
+            config.set(path + ".name", "&bTier " + i);
+            config.set(path + ".lore", List.of("&7Generated ability " + i));
+            List<Map<String, Object>> effects = new ArrayList<>();
+            effects.add(effect("SPEED", i % 10));
+            effects.add(effect("FIRE_RESISTANCE", 0));
+            if (i % 2 == 0) effects.add(effect("REGENERATION", i % 5));
+            config.set(path + ".effects", effects);
+        }
+        List<Map<String, Object>> recipes = new ArrayList<>();
+        for (int r = 0; r < recipeCount; r++) {
+            Map<String, Object> recipe = new LinkedHashMap<>();
+            recipe.put("ability", abilityId(r % abilityCount));
+            recipe.put("ingredients", List.of(Material.APPLE.name(), INGREDIENTS[r % INGREDIENTS.length].name()));
+            recipe.put("result", Material.APPLE.name());
+            recipes.add(recipe);
+        }
+        config.set("recipes", recipes);
+        return config;
+    }
+
+    private static Map<String, Object> effect(String type, int amplifier) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("type", type);
+        map.put("amplifier", amplifier);
+        map.put("duration", "infinite");
+        return map;
+    }
+
+    /** A crafting grid whose setResult is captured instead of sent to a client. */
+    static final class Grid {
+        final CraftingInventory inventory = mock(CraftingInventory.class);
+        final PrepareItemCraftEvent event;
+        ItemStack result;
+
+        Grid(Recipe recipe, ItemStack[] matrix) {
+            InventoryView view = mock(InventoryView.class);
+            when(view.getTopInventory()).thenReturn(inventory);
+            when(inventory.getRecipe()).thenReturn(recipe);
+            when(inventory.getMatrix()).thenReturn(matrix);
+            doAnswer(invocation -> {
+                result = invocation.getArgument(0);
+                return null;
+            }).when(inventory).setResult(any());
+            this.event = new PrepareItemCraftEvent(inventory, view, false);
+        }
+    }
+
+    static ShapelessRecipe shapeless(NamespacedKey key) {
+        return new ShapelessRecipe(key, new ItemStack(Material.BREAD));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.foodabilities.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionEffect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code onInteract} and {@code onConsume} for an infused food and for
+ * the items that make up nearly all right-clicks on a server. {@code interact}
+ * and {@code consume} start each call on a new tick with no effects active, so
+ * an infused food is actually applied; {@code interactCoalesced} repeats the
+ * right-click within one tick, also with no effects active, the auto-clicker
+ * case the limiter rejects.
+ * The {@code Baseline} variants run {@link BaselineConsume}, the handlers
+ * before Material-based classification, on an item built the old way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsumeBenchmark {
+
+    @Param({"10", "1000"})
+    public int abilityCount;
+
+    /** INFUSED: a crafted ability food; FOOD: a plain apple; SWORD: a non-food item. */
+    @Param({"INFUSED", "FOOD", "SWORD"})
+    public String item;
+
+    /** Advances the server tick and clears the player's effects before each call. */
+    @State(Scope.Thread)
+    public static class FreshTick {
+        @Setup(Level.Invocation)
+        public void advance(ConsumeBenchmark state) {
+            state.bench.server.getScheduler().performOneTick();
+            state.clearEffects();
+        }
+    }
+
+    /** Clears the player's effects before each call but stays on the same tick. */
+    @State(Scope.Thread)
+    public static class SameTick {
+        @Setup(Level.Invocation)
+        public void clear(ConsumeBenchmark state) {
+            state.clearEffects();
+        }
+    }
+
+    private BenchmarkServer bench;
+    private PlayerMock player;
+    private PlayerInteractEvent interact;
+    private PlayerItemConsumeEvent consume;
+    private BaselineConsume baseline;
+    private PlayerInteractEvent baselineInteract;
+    private PlayerItemConsumeEvent baselineConsume;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bench = BenchmarkServer.start(abilityCount, abilityCount);
+        player = bench.server.addPlayer();
+        // Creative keeps the held stack intact across invocations
+        player.setGameMode(GameMode.CREATIVE);
+
+        baseline = new BaselineConsume(bench.plugin,
+            BenchmarkServer.config(abilityCount, abilityCount).getConfigurationSection("abilities"));
+
+        ItemStack stack;
+        ItemStack baselineStack;
+        switch (item) {
+            case "INFUSED": {
+                BenchmarkServer.Grid grid = new BenchmarkServer.Grid(
+                    BenchmarkServer.shapeless(bench.recipeKey(abilityCount, 1)),
+                    new ItemStack[] {new ItemStack(Material.APPLE), new ItemStack(Material.SUGAR), null, null, null, null, null, null, null});
+                bench.plugin.onPrepareCraft(grid.event);
+                stack = grid.result;
+                baselineStack = baseline.buildItem(Material.APPLE, baseline.getAbility(BenchmarkServer.abilityId(0)));
+                break;
+            }
+            case "FOOD":
+                stack = new ItemStack(Material.APPLE);
+                baselineStack = stack;
+                break;
+            default:
+                stack = new ItemStack(Material.DIAMOND_SWORD);
+                baselineStack = stack;
+                break;
+        }
+        player.getInventory().setItemInMainHand(stack);
+        interact = new PlayerInteractEvent(player, Action.RIGHT_CLICK_AIR, stack, null, null, EquipmentSlot.HAND);
+        consume = new PlayerItemConsumeEvent(player, stack, EquipmentSlot.HAND);
+        baselineInteract = new PlayerInteractEvent(player, Action.RIGHT_CLICK_AIR, baselineStack, null, null, EquipmentSlot.HAND);
+        baselineConsume = new PlayerItemConsumeEvent(player, baselineStack, EquipmentSlot.HAND);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bench.stop();
+    }
+
+    private void clearEffects() {
+        for (PotionEffect effect : player.getActivePotionEffects()) {
+            player.removePotionEffect(effect.getType());
+        }
+    }
+
+    @Benchmark
+    public boolean interact(FreshTick tick) {
+        interact.setCancelled(false);
+        bench.plugin.onInteract(interact);
+        return interact.isCancelled();
+    }
+
+    @Benchmark
+    public boolean interactCoalesced(SameTick tick) {
+        interact.setCancelled(false);
+        bench.plugin.onInteract(interact);
+        return interact.isCancelled();
+    }
+
+    @Benchmark
+    public PlayerItemConsumeEvent consume(FreshTick tick) {
+        bench.plugin.onConsume(consume);
+        return consume;
+    }
+
+    @Benchmark
+    public boolean interactBaseline(FreshTick tick) {
+        baselineInteract.setCancelled(false);
+        baseline.onInteract(baselineInteract);
+        return baselineInteract.isCancelled();
+    }
+
+    @Benchmark
+    public PlayerItemConsumeEvent consumeBaseline(FreshTick tick) {
+        baseline.onConsume(baselineConsume);
+        return baselineConsume;
+    }
+}
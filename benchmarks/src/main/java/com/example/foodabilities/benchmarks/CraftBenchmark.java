@@ -0,0 +1,87 @@
+package com.example.foodabilities.benchmarks;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one crafting-grid change routed through
+ * {@code FoodAbilitiesPlugin.onPrepareCraft}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CraftBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int abilityCount;
+
+    @Param({"10", "1000"})
+    public int recipeCount;
+
+    /** POTION: potion + food; CONFIG: a cfg_* recipe; UNRELATED: a recipe from another namespace. */
+    @Param({"POTION", "CONFIG", "UNRELATED"})
+    public String grid;
+
+    private BenchmarkServer bench;
+    private BenchmarkServer.Grid craftingGrid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bench = BenchmarkServer.start(abilityCount, recipeCount);
+        ItemStack apple = new ItemStack(Material.APPLE);
+        switch (grid) {
+            case "POTION": {
+                ItemStack potion = new ItemStack(Material.POTION);
+                PotionMeta meta = (PotionMeta) potion.getItemMeta();
+                meta.setBasePotionType(PotionType.SPEED);
+                potion.setItemMeta(meta);
+                craftingGrid = new BenchmarkServer.Grid(
+                    BenchmarkServer.shapeless(new NamespacedKey(bench.plugin, "infused_food")),
+                    new ItemStack[] {potion, apple, null, null, null, null, null, null, null});
+                break;
+            }
+            case "CONFIG":
+                craftingGrid = new BenchmarkServer.Grid(
+                    BenchmarkServer.shapeless(bench.recipeKey(abilityCount, recipeCount)),
+                    new ItemStack[] {apple, new ItemStack(Material.SUGAR), null, null, null, null, null, null, null});
+                break;
+            default:
+                craftingGrid = new BenchmarkServer.Grid(
+                    BenchmarkServer.shapeless(NamespacedKey.minecraft("benchmark_bread")),
+                    new ItemStack[] {new ItemStack(Material.WHEAT), new ItemStack(Material.WHEAT), null, null, null, null, null, null, null});
+                break;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bench.stop();
+    }
+
+    @Benchmark
+    public ItemStack prepareCraft() {
+        bench.plugin.onPrepareCraft(craftingGrid.event);
+        return craftingGrid.result;
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.foodabilities.benchmarks;
+
+import be.seeseemelk.mockbukkit.command.ConsoleCommandSenderMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionType;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Drives N simulated players through the real FoodAbilities listeners, one
+ * server tick at a time, while {@code /foodabilities reload} runs
+ * concurrently against alternating config variants. Reports the plugin's
+ * share of each 50 ms tick, time and allocation per player action, and the
+ * worst tick seen while a reload was in flight.
+ *
+ * <p>Actions are drawn from a seeded random source, so two runs with the same
+ * arguments perform the same work and produce reports that diff line by line;
+ * only the measured numbers differ.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.foodabilities.benchmarks.LoadSimulation \
+ *     --players 500 --ticks 1200 --seed 42 --out load-report.txt
+ * </pre>
+ */
+public final class LoadSimulation {
+    private static final long TICK_NANOS = 50_000_000L;
+    private static final int RECIPE_STACKS = 16;
+
+    private enum Kind {
+        CRAFT_POTION,
+        CRAFT_CONFIG,
+        CRAFT_UNRELATED,
+        INTERACT,
+        CONSUME,
+        SCHEDULER
+    }
+
+    /** Totals for one kind of action. */
+    private static final class Stats {
+        long count;
+        long nanos;
+        long maxNanos;
+        long bytes;
+
+        void add(long elapsed, long allocated) {
+            count++;
+            nanos += elapsed;
+            maxNanos = Math.max(maxNanos, elapsed);
+            bytes += allocated;
+        }
+    }
+
+    private static final class SimPlayer {
+        final PlayerInteractEvent interact;
+        final PlayerItemConsumeEvent consume;
+
+        SimPlayer(PlayerInteractEvent interact, PlayerItemConsumeEvent consume) {
+            this.interact = interact;
+            this.consume = consume;
+        }
+    }
+
+    private final int players;
+    private final int ticks;
+    private final long seed;
+    private final int abilities;
+    private final int reloadEvery;
+    private final double actionChance;
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private LoadSimulation(int players, int ticks, long seed, int abilities, int reloadEvery, double actionChance) {
+        this.players = players;
+        this.ticks = ticks;
+        this.seed = seed;
+        this.abilities = abilities;
+        this.reloadEvery = reloadEvery;
+        this.actionChance = actionChance;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int players = 500;
+        int ticks = 1200;
+        long seed = 42;
+        int abilities = 100;
+        int reloadEvery = 100;
+        double actionChance = 0.25;
+        Path out = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--players":
+                    players = Integer.parseInt(value);
+                    break;
+                case "--ticks":
+                    ticks = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--abilities":
+                    abilities = Integer.parseInt(value);
+                    break;
+                case "--reload-every":
+                    reloadEvery = Integer.parseInt(value);
+                    break;
+                case "--action-chance":
+                    actionChance = Double.parseDouble(value);
+                    break;
+                case "--out":
+                    out = Paths.get(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (players < 1 || ticks < 1 || abilities < 1) throw new IllegalArgumentException("players, ticks and abilities must be positive");
+
+        String report = new LoadSimulation(players, ticks, seed, abilities, reloadEvery, actionChance).run();
+        System.out.print(report);
+        if (out != null) {
+            Files.write(out, report.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String run() {
+        BenchmarkServer bench = BenchmarkServer.start(abilities, abilities);
+        try {
+            return simulate(bench);
+        } finally {
+            bench.stop();
+        }
+    }
+
+    private String simulate(BenchmarkServer bench) {
+        Random random = new Random(seed);
+
+        ItemStack potion = new ItemStack(Material.POTION);
+        PotionMeta potionMeta = (PotionMeta) potion.getItemMeta();
+        potionMeta.setBasePotionType(PotionType.SPEED);
+        potion.setItemMeta(potionMeta);
+        BenchmarkServer.Grid potionGrid = new BenchmarkServer.Grid(
+            BenchmarkServer.shapeless(new NamespacedKey(bench.plugin, "infused_food")),
+            grid(potion, new ItemStack(Material.BREAD)));
+        BenchmarkServer.Grid unrelatedGrid = new BenchmarkServer.Grid(
+            BenchmarkServer.shapeless(NamespacedKey.minecraft("benchmark_bread")),
+            grid(new ItemStack(Material.WHEAT), new ItemStack(Material.WHEAT)));
+        List<BenchmarkServer.Grid> configGrids = new ArrayList<>();
+        List<ItemStack> infused = new ArrayList<>();
+        for (int r = 1; r <= Math.min(RECIPE_STACKS, abilities); r++) {
+            BenchmarkServer.Grid configGrid = new BenchmarkServer.Grid(
+                BenchmarkServer.shapeless(bench.recipeKey(abilities, r)),
+                grid(new ItemStack(Material.APPLE), new ItemStack(Material.SUGAR)));
+            bench.plugin.onPrepareCraft(configGrid.event);
+            configGrids.add(configGrid);
+            if (configGrid.result != null) infused.add(configGrid.result);
+        }
+        if (infused.isEmpty()) throw new IllegalStateException("No infused stacks could be crafted");
+
+        List<SimPlayer> sims = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            PlayerMock player = bench.server.addPlayer();
+            // Creative keeps held stacks intact, so every tick sees the same items
+            player.setGameMode(GameMode.CREATIVE);
+            ItemStack food = infused.get(random.nextInt(infused.size()));
+            ItemStack held;
+            int roll = random.nextInt(10);
+            if (roll < 3) {
+                held = food;
+            } else if (roll < 7) {
+                held = new ItemStack(Material.APPLE);
+            } else {
+                held = new ItemStack(Material.DIAMOND_SWORD);
+            }
+            player.getInventory().setItemInMainHand(held);
+            sims.add(new SimPlayer(
+                new PlayerInteractEvent(player, Action.RIGHT_CLICK_AIR, held, null, null, EquipmentSlot.HAND),
+                new PlayerItemConsumeEvent(player, food, EquipmentSlot.HAND)));
+        }
+
+        ConsoleCommandSenderMock console = (ConsoleCommandSenderMock) bench.server.getConsoleSender();
+        Stats[] stats = new Stats[Kind.values().length];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new Stats();
+        }
+        long[] tickNanos = new long[ticks];
+        long worstReloadTick = 0;
+        int reloadsStarted = 0;
+        int reloadsCompleted = 0;
+        int reloadTicks = 0;
+        int longestReload = 0;
+        int reloadStartedAt = -1;
+
+        for (int tick = 0; tick < ticks; tick++) {
+            if (reloadEvery > 0 && tick % reloadEvery == reloadEvery / 2 && reloadStartedAt < 0) {
+                // Alternate configs so each reload has real recipe changes to apply
+                int variant = abilities + (reloadsStarted % 2 == 0 ? 1 : 0);
+                bench.writeConfig(BenchmarkServer.config(variant, variant));
+                drain(console);
+                bench.server.dispatchCommand(console, "foodabilities reload");
+                reloadsStarted++;
+                reloadStartedAt = tick;
+            }
+
+            long tickTotal = 0;
+            for (SimPlayer sim : sims) {
+                if (random.nextDouble() >= actionChance) continue;
+                int roll = random.nextInt(100);
+                long allocBefore = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                Kind kind;
+                if (roll < 15) {
+                    kind = Kind.CRAFT_POTION;
+                    bench.plugin.onPrepareCraft(potionGrid.event);
+                } else if (roll < 30) {
+                    kind = Kind.CRAFT_CONFIG;
+                    bench.plugin.onPrepareCraft(configGrids.get(roll % configGrids.size()).event);
+                } else if (roll < 45) {
+                    kind = Kind.CRAFT_UNRELATED;
+                    bench.plugin.onPrepareCraft(unrelatedGrid.event);
+                } else if (roll < 85) {
+                    kind = Kind.INTERACT;
+                    sim.interact.setCancelled(false);
+                    bench.plugin.onInteract(sim.interact);
+                } else {
+                    kind = Kind.CONSUME;
+                    bench.plugin.onConsume(sim.consume);
+                }
+                long elapsed = System.nanoTime() - start;
+                stats[kind.ordinal()].add(elapsed, threads.getCurrentThreadAllocatedBytes() - allocBefore);
+                tickTotal += elapsed;
+            }
+
+            // Scheduled plugin work: reload publish, session upkeep
+            long allocBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            bench.server.getScheduler().performOneTick();
+            long elapsed = System.nanoTime() - start;
+            stats[Kind.SCHEDULER.ordinal()].add(elapsed, threads.getCurrentThreadAllocatedBytes() - allocBefore);
+            tickTotal += elapsed;
+            tickNanos[tick] = tickTotal;
+
+            if (reloadStartedAt >= 0) {
+                reloadTicks++;
+                worstReloadTick = Math.max(worstReloadTick, tickTotal);
+                if (reloadFinished(console)) {
+                    reloadsCompleted++;
+                    longestReload = Math.max(longestReload, tick - reloadStartedAt + 1);
+                    reloadStartedAt = -1;
+                }
+            }
+        }
+
+        drain(console);
+        bench.server.dispatchCommand(console, "foodabilities stats");
+        List<String> pluginStats = new ArrayList<>();
+        String line;
+        while ((line = console.nextMessage()) != null) {
+            pluginStats.add(line);
+        }
+
+        return report(stats, tickNanos, reloadsStarted, reloadsCompleted, reloadTicks, longestReload, worstReloadTick, pluginStats);
+    }
+
+    private String report(Stats[] stats, long[] tickNanos, int reloadsStarted, int reloadsCompleted, int reloadTicks,
+                          int longestReload, long worstReloadTick, List<String> pluginStats) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# FoodAbilities load simulation\n");
+        sb.append("players=").append(players).append(" ticks=").append(ticks).append(" seed=").append(seed)
+            .append(" abilities=").append(abilities).append(" reload-every=").append(reloadEvery)
+            .append(" action-chance=").append(actionChance).append('\n');
+        sb.append("java=").append(System.getProperty("java.version")).append(' ')
+            .append(System.getProperty("java.vm.name")).append('\n');
+
+        long[] sorted = Arrays.copyOf(tickNanos, tickNanos.length);
+        Arrays.sort(sorted);
+        sb.append("\n## Tick share (plugin time / 50 ms)\n");
+        sb.append(String.format(Locale.ROOT, "p50=%.3f%% p99=%.3f%% max=%.3f%%%n",
+            share(percentile(sorted, 50)), share(percentile(sorted, 99)), share(sorted[sorted.length - 1])));
+
+        sb.append("\n## Actions\n");
+        sb.append(String.format(Locale.ROOT, "%-16s %10s %12s %12s %14s%n", "action", "count", "mean_ns", "max_ns", "bytes_per_op"));
+        for (Kind kind : Kind.values()) {
+            Stats s = stats[kind.ordinal()];
+            sb.append(String.format(Locale.ROOT, "%-16s %10d %12d %12d %14d%n",
+                kind.name().toLowerCase(Locale.ROOT), s.count,
+                s.count == 0 ? 0 : s.nanos / s.count, s.maxNanos,
+                s.count == 0 ? 0 : s.bytes / s.count));
+        }
+
+        sb.append("\n## Reload\n");
+        sb.append("started=").append(reloadsStarted).append(" completed=").append(reloadsCompleted)
+            .append(" ticks-in-flight=").append(reloadTicks).append(" longest-ticks=").append(longestReload).append('\n');
+        sb.append(String.format(Locale.ROOT, "worst-tick-during-reload=%.3f ms (%.3f%%)%n",
+            worstReloadTick / 1_000_000.0, share(worstReloadTick)));
+
+        sb.append("\n## Plugin stats\n");
+        for (String line : pluginStats) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static double share(long nanos) {
+        return nanos * 100.0 / TICK_NANOS;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static boolean reloadFinished(ConsoleCommandSenderMock console) {
+        String message;
+        while ((message = console.nextMessage()) != null) {
+            if (message.startsWith("FoodAbilities config reloaded") || message.startsWith("FoodAbilities reload failed")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void drain(ConsoleCommandSenderMock console) {
+        while (console.nextMessage() != null) {
+            // discard
+        }
+    }
+
+    private static ItemStack[] grid(ItemStack first, ItemStack second) {
+        return new ItemStack[] {first, second, null, null, null, null, null, null, null};
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.foodabilities.benchmarks;
+
+import com.example.foodabilities.Ability;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Config parsing and the blocking {@code reloadPluginConfig} path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReloadBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int abilityCount;
+
+    @Param({"10", "1000"})
+    public int recipeCount;
+
+    /** Whether reloadPluginConfig may read the compiled config.bin instead of compiling the YAML. */
+    @Param({"true", "false"})
+    public boolean compiled;
+
+    private BenchmarkServer bench;
+    private ConfigurationSection abilities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bench = BenchmarkServer.start(abilityCount, recipeCount);
+        YamlConfiguration config = BenchmarkServer.config(abilityCount, recipeCount);
+        abilities = config.getConfigurationSection("abilities");
+    }
+
+    @Setup(Level.Invocation)
+    public void dropCompiled() {
+        if (!compiled) {
+            new File(bench.plugin.getDataFolder(), "config.bin").delete();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bench.stop();
+    }
+
+    @Benchmark
+    public void parseAbilities(Blackhole bh) {
+        for (String id : abilities.getKeys(false)) {
+            bh.consume(Ability.fromSection(id, abilities.getConfigurationSection(id), bench.plugin.getLogger()));
+        }
+    }
+
+    @Benchmark
+    public void reloadPluginConfig() {
+        bench.plugin.reloadPluginConfig();
+    }
+}
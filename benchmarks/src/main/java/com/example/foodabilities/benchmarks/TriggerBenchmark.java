@@ -0,0 +1,153 @@
+package com.example.foodabilities.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.RegisteredListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of FoodAbilities' listeners for combat and move events as the number
+ * of online players and trigger holders grows. Events are dispatched through
+ * the plugin's registered listeners only, as the server would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TriggerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int onlinePlayers;
+
+    /** Share of online players holding an ability with melee_hit and while_in triggers. */
+    @Param({"0", "10", "100"})
+    public int holderPercent;
+
+    private BenchmarkServer bench;
+    private EntityDamageByEntityEvent unrelatedHit;
+    private EntityDamageByEntityEvent holderHit;
+    private PlayerMoveEvent unrelatedMove;
+    private RegisteredListener[] damageListeners;
+    private RegisteredListener[] moveListeners;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bench = BenchmarkServer.start(1, 1);
+        YamlConfiguration config = BenchmarkServer.config(1, 1);
+        config.set("abilities." + BenchmarkServer.abilityId(0) + ".triggers", List.of(
+            trigger("melee_hit", null),
+            trigger("while_in", "NETHER")));
+        bench.writeConfig(config);
+        bench.plugin.reloadPluginConfig();
+
+        BenchmarkServer.Grid grid = new BenchmarkServer.Grid(
+            BenchmarkServer.shapeless(bench.recipeKey(1, 1)),
+            new ItemStack[] {new ItemStack(Material.APPLE), new ItemStack(Material.SUGAR), null, null, null, null, null, null, null});
+        bench.plugin.onPrepareCraft(grid.event);
+        ItemStack infused = grid.result;
+
+        int holders = onlinePlayers * holderPercent / 100;
+        List<PlayerMock> players = new ArrayList<>();
+        for (int i = 0; i < onlinePlayers; i++) {
+            PlayerMock player = bench.server.addPlayer();
+            if (i < holders) {
+                bench.plugin.onConsume(new PlayerItemConsumeEvent(player, infused, EquipmentSlot.HAND));
+            }
+            players.add(player);
+        }
+
+        PlayerMock victim = players.get(0);
+        PlayerMock unrelated = players.get(players.size() - 1);
+        PlayerMock holder = holders > 0 ? players.get(0) : unrelated;
+        if (holders == onlinePlayers) unrelated = bench.server.addPlayer();
+        unrelatedHit = hit(unrelated, victim);
+        holderHit = hit(holder, players.get(players.size() - 1));
+        Location from = unrelated.getLocation();
+        unrelatedMove = new PlayerMoveEvent(unrelated, from, from.clone().add(1, 0, 0));
+
+        damageListeners = listeners(unrelatedHit);
+        moveListeners = listeners(unrelatedMove);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bench.stop();
+    }
+
+    @Benchmark
+    public EntityDamageByEntityEvent unrelatedHit() throws EventException {
+        return dispatch(damageListeners, unrelatedHit);
+    }
+
+    @Benchmark
+    public EntityDamageByEntityEvent holderHit() throws EventException {
+        return dispatch(damageListeners, holderHit);
+    }
+
+    @Benchmark
+    public PlayerMoveEvent unrelatedMove() throws EventException {
+        return dispatch(moveListeners, unrelatedMove);
+    }
+
+    private static <T extends Event> T dispatch(RegisteredListener[] listeners, T event) throws EventException {
+        for (RegisteredListener listener : listeners) {
+            listener.callEvent(event);
+        }
+        return event;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static EntityDamageByEntityEvent hit(PlayerMock damager, PlayerMock victim) {
+        return new EntityDamageByEntityEvent(damager, victim, EntityDamageEvent.DamageCause.ENTITY_ATTACK, 1.0);
+    }
+
+    private RegisteredListener[] listeners(Event event) {
+        List<RegisteredListener> ours = new ArrayList<>();
+        for (RegisteredListener listener : event.getHandlers().getRegisteredListeners()) {
+            if (listener.getPlugin() == bench.plugin) ours.add(listener);
+        }
+        return ours.toArray(new RegisteredListener[0]);
+    }
+
+    private static Map<String, Object> trigger(String on, String environment) {
+        Map<String, Object> effect = new LinkedHashMap<>();
+        effect.put("type", "INCREASE_DAMAGE");
+        effect.put("amplifier", 1);
+        effect.put("duration", 100);
+        Map<String, Object> trigger = new LinkedHashMap<>();
+        trigger.put("on", on);
+        if (environment != null) trigger.put("environment", environment);
+        trigger.put("effects", List.of(effect));
+        return trigger;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.foodabilities;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Drives {@link ConfigWatcher} by writing config.yml on disk, the way
+ * provisioning tooling would, and checks what the plugin ends up serving.
+ */
+class ConfigWatcherTest {
+    private static final long DEBOUNCE_MS = 100;
+    private static final long TIMEOUT_MS = 10_000;
+
+    private ServerMock server;
+    private FoodAbilitiesPlugin plugin;
+    private ConfigWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        plugin = MockBukkit.load(FoodAbilitiesPlugin.class);
+        write(config("first"));
+        plugin.reloadPluginConfig();
+        watcher = new ConfigWatcher(plugin, DEBOUNCE_MS);
+        watcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.stop();
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void appliesChangedConfig() {
+        ConfigSnapshot before = plugin.getSnapshot();
+        write(config("second"));
+
+        ConfigSnapshot after = awaitChange(before);
+        assertNotNull(after.getAbility("second"));
+        assertNull(after.getAbility("first"));
+    }
+
+    @Test
+    void mergesBurstOfWritesIntoLastContents() {
+        ConfigSnapshot before = plugin.getSnapshot();
+        for (int i = 0; i < 5; i++) {
+            write(config("burst_" + i));
+        }
+
+        ConfigSnapshot after = awaitChange(before);
+        assertNotNull(after.getAbility("burst_4"));
+    }
+
+    @Test
+    void rejectsConfigWithWarningsAndDoesNotCacheIt() {
+        ConfigSnapshot before = plugin.getSnapshot();
+        YamlConfiguration broken = config("second");
+        Map<String, Object> recipe = new LinkedHashMap<>();
+        recipe.put("ability", "missing");
+        recipe.put("ingredients", List.of("SUGAR"));
+        broken.set("recipes", List.of(recipe));
+        write(broken);
+
+        settle();
+        assertSame(before, plugin.getSnapshot());
+        // A restart must not pick the refused config up from config.bin either
+        assertNull(new CompiledConfigCache(plugin).load(plugin.configHash(), plugin, null));
+    }
+
+    @Test
+    void ignoresRewriteWithSameContents() {
+        ConfigSnapshot before = plugin.getSnapshot();
+        write(config("first"));
+
+        settle();
+        assertSame(before, plugin.getSnapshot());
+    }
+
+    private static YamlConfiguration config(String abilityId) {
+        YamlConfiguration config = new YamlConfiguration();
+        Map<String, Object> effect = new LinkedHashMap<>();
+        effect.put("type", "SPEED");
+        effect.put("amplifier", 1);
+        effect.put("duration", "infinite");
+        config.set("abilities." + abilityId + ".name", "&b" + abilityId);
+        config.set("abilities." + abilityId + ".effects", List.of(effect));
+        return config;
+    }
+
+    private void write(YamlConfiguration config) {
+        try {
+            config.save(new File(plugin.getDataFolder(), "config.yml"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Ticks the server until a new snapshot is published, so the global region publish step runs. */
+    private ConfigSnapshot awaitChange(ConfigSnapshot before) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            server.getScheduler().performOneTick();
+            ConfigSnapshot current = plugin.getSnapshot();
+            if (current != before) return current;
+            sleep(10);
+        }
+        return fail("config.yml change was not applied within " + TIMEOUT_MS + " ms");
+    }
+
+    /** Ticks the server well past the debounce interval and an off-thread parse. */
+    private void settle() {
+        long deadline = System.currentTimeMillis() + DEBOUNCE_MS * 15;
+        while (System.currentTimeMillis() < deadline) {
+            server.getScheduler().performOneTick();
+            sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
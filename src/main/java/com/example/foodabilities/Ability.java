@@ -10,21 +10,47 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.logging.Logger;
 
 public class Ability {
     private final String id;
     private final String displayName;
     private final List<String> loreLines;
     private final List<PotionEffect> potionEffects;
+    private final int cooldownTicks;
+    private final int coalesceTicks;
+    private final List<Trigger> triggers;
 
     public Ability(String id,
                    String displayName,
                    List<String> loreLines,
                    List<PotionEffect> potionEffects) {
+        this(id, displayName, loreLines, potionEffects, -1, -1);
+    }
+
+    public Ability(String id,
+                   String displayName,
+                   List<String> loreLines,
+                   List<PotionEffect> potionEffects,
+                   int cooldownTicks,
+                   int coalesceTicks) {
+        this(id, displayName, loreLines, potionEffects, cooldownTicks, coalesceTicks, Collections.emptyList());
+    }
+
+    Ability(String id,
+            String displayName,
+            List<String> loreLines,
+            List<PotionEffect> potionEffects,
+            int cooldownTicks,
+            int coalesceTicks,
+            List<Trigger> triggers) {
         this.id = Objects.requireNonNull(id, "id");
         this.displayName = displayName;
         this.loreLines = loreLines == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(loreLines));
         this.potionEffects = Collections.unmodifiableList(new ArrayList<>(potionEffects));
+        this.cooldownTicks = cooldownTicks;
+        this.coalesceTicks = coalesceTicks;
+        this.triggers = Collections.unmodifiableList(new ArrayList<>(triggers));
     }
 
     public String getId() {
@@ -43,8 +69,34 @@ public class Ability {
         return potionEffects;
     }
 
+    /** Ticks between right-click uses of this ability, or -1 to use the global default. */
+    public int getCooldownTicks() {
+        return cooldownTicks;
+    }
+
+    /** Ticks over which repeated right-clicks collapse into one use, or -1 to use the global default. */
+    public int getCoalesceTicks() {
+        return coalesceTicks;
+    }
+
+    /** Conditional effects, indexed per holder by {@link TriggerEngine}. */
+    List<Trigger> getTriggers() {
+        return triggers;
+    }
+
+    /** Whether another ability is configured identically, for reload change summaries. */
+    boolean sameDefinition(Ability other) {
+        return id.equals(other.id)
+            && Objects.equals(displayName, other.displayName)
+            && loreLines.equals(other.loreLines)
+            && potionEffects.equals(other.potionEffects)
+            && cooldownTicks == other.cooldownTicks
+            && coalesceTicks == other.coalesceTicks
+            && triggers.equals(other.triggers);
+    }
+
     @SuppressWarnings("unchecked")
-    public static Ability fromSection(String id, ConfigurationSection section) {
+    public static Ability fromSection(String id, ConfigurationSection section, Logger logger) {
         String name = section.getString("name", id);
         if (name != null) {
             name = ChatColor.translateAlternateColorCodes('&', name);
@@ -55,10 +107,27 @@ public class Ability {
             lore.add(ChatColor.translateAlternateColorCodes('&', line));
         }
 
-        int infiniteTicks = 1_000_000_000; // very long
+        List<PotionEffect> effects = parseEffects(section.getMapList("effects"));
+        int cooldownTicks = section.getInt("cooldown-ticks", -1);
+        int coalesceTicks = section.getInt("coalesce-ticks", -1);
+
+        List<Trigger> triggers = new ArrayList<>();
+        for (Map<?, ?> raw : section.getMapList("triggers")) {
+            Trigger trigger = Trigger.fromMap(raw, id, logger);
+            if (trigger != null) triggers.add(trigger);
+        }
+
+        return new Ability(id, name, lore, effects, cooldownTicks, coalesceTicks, triggers);
+    }
+
+    /**
+     * Parses a list of {@code {type, amplifier, duration, ambient, particles, icon}}
+     * maps. Entries with a missing or unknown type are skipped.
+     */
+    static List<PotionEffect> parseEffects(List<Map<?, ?>> rawEffects) {
+        int infiniteTicks = PotionEffect.INFINITE_DURATION; // kept alive by EffectSessionManager
         List<PotionEffect> effects = new ArrayList<>();
 
-        List<Map<?, ?>> rawEffects = section.getMapList("effects");
         for (Map<?, ?> map : rawEffects) {
             Object typeObj = map.get("type");
             if (typeObj == null) continue;
@@ -98,8 +167,7 @@ public class Ability {
 
             effects.add(new PotionEffect(type, duration, amplifier, ambient, particles, icon));
         }
-
-        return new Ability(id, name, lore, effects);
+        return effects;
     }
 
     private static boolean getBoolean(Object value, boolean def) {
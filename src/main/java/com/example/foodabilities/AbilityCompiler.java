@@ -0,0 +1,157 @@
+package com.example.foodabilities;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Resolves {@code extends:} and {@code includes:} between abilities at load
+ * time, so every compiled ability carries one flat effect list with at most
+ * one effect per type.
+ *
+ * <p>{@code extends} names a single parent whose name, lore, limits and
+ * effects are inherited unless the child sets its own. {@code includes}
+ * lists abilities whose effects are merged in. Triggers from both are added
+ * to the child's own. When two effects share a type,
+ * the higher amplifier wins, then the longer duration.
+ */
+final class AbilityCompiler {
+
+    private static final class Declared {
+        final Ability ability;
+        final String parent;
+        final List<String> includes;
+        final boolean hasName;
+        final boolean hasLore;
+
+        Declared(Ability ability, String parent, List<String> includes, boolean hasName, boolean hasLore) {
+            this.ability = ability;
+            this.parent = parent;
+            this.includes = includes;
+            this.hasName = hasName;
+            this.hasLore = hasLore;
+        }
+    }
+
+    private final Map<String, Declared> declared = new LinkedHashMap<>();
+    private final Map<String, Ability> compiled = new HashMap<>();
+    private final List<String> resolving = new ArrayList<>();
+    private final Logger logger;
+
+    private AbilityCompiler(Logger logger) {
+        this.logger = logger;
+    }
+
+    /** Compiled abilities keyed by lower-case id. */
+    static Map<String, Ability> compile(ConfigurationSection abilities, Logger logger) {
+        AbilityCompiler compiler = new AbilityCompiler(logger);
+        if (abilities == null) return Collections.emptyMap();
+        for (String id : abilities.getKeys(false)) {
+            ConfigurationSection section = abilities.getConfigurationSection(id);
+            if (section == null) continue;
+            String parent = section.getString("extends");
+            List<String> includes = new ArrayList<>();
+            for (String include : section.getStringList("includes")) {
+                includes.add(include.toLowerCase(Locale.ROOT));
+            }
+            compiler.declared.put(id.toLowerCase(Locale.ROOT), new Declared(
+                Ability.fromSection(id, section, logger),
+                parent == null ? null : parent.toLowerCase(Locale.ROOT),
+                includes,
+                section.contains("name"),
+                section.contains("lore")));
+        }
+        for (String id : compiler.declared.keySet()) {
+            compiler.resolve(id);
+        }
+        return compiler.compiled;
+    }
+
+    private Ability resolve(String id) {
+        Ability done = compiled.get(id);
+        if (done != null) return done;
+        Declared decl = declared.get(id);
+        if (decl == null) return null;
+        if (resolving.contains(id)) {
+            List<String> cycle = new ArrayList<>(resolving.subList(resolving.indexOf(id), resolving.size()));
+            cycle.add(id);
+            logger.warning("Ability inheritance cycle ignored: " + String.join(" -> ", cycle));
+            return null;
+        }
+
+        resolving.add(id);
+        try {
+            Ability own = decl.ability;
+            Map<PotionEffectType, PotionEffect> effects = new LinkedHashMap<>();
+            merge(effects, own.getPotionEffects());
+
+            String name = own.getDisplayName();
+            List<String> lore = own.getLoreLines();
+            int cooldown = own.getCooldownTicks();
+            int coalesce = own.getCoalesceTicks();
+            Set<Trigger> triggers = new LinkedHashSet<>(own.getTriggers());
+
+            if (decl.parent != null) {
+                Ability parent = resolveRef(id, decl.parent);
+                if (parent != null) {
+                    merge(effects, parent.getPotionEffects());
+                    triggers.addAll(parent.getTriggers());
+                    if (!decl.hasName) name = parent.getDisplayName();
+                    if (!decl.hasLore) lore = parent.getLoreLines();
+                    if (cooldown < 0) cooldown = parent.getCooldownTicks();
+                    if (coalesce < 0) coalesce = parent.getCoalesceTicks();
+                }
+            }
+            for (String include : decl.includes) {
+                Ability included = resolveRef(id, include);
+                if (included != null) {
+                    merge(effects, included.getPotionEffects());
+                    triggers.addAll(included.getTriggers());
+                }
+            }
+
+            Ability result = new Ability(own.getId(), name, lore, new ArrayList<>(effects.values()),
+                cooldown, coalesce, new ArrayList<>(triggers));
+            compiled.put(id, result);
+            return result;
+        } finally {
+            resolving.remove(resolving.size() - 1);
+        }
+    }
+
+    private Ability resolveRef(String from, String to) {
+        if (!declared.containsKey(to)) {
+            logger.warning("Ability " + from + " references unknown ability " + to);
+            return null;
+        }
+        return resolve(to);
+    }
+
+    /** Adds effects to {@code into}, keeping the stronger one where a type is already present. */
+    static void merge(Map<PotionEffectType, PotionEffect> into, List<PotionEffect> effects) {
+        for (PotionEffect effect : effects) {
+            PotionEffect existing = into.get(effect.getType());
+            if (existing == null || stronger(effect, existing)) {
+                into.put(effect.getType(), effect);
+            }
+        }
+    }
+
+    /** Whether {@code a} replaces {@code b} of the same type: higher amplifier, then longer duration. */
+    static boolean stronger(PotionEffect a, PotionEffect b) {
+        if (a.getAmplifier() != b.getAmplifier()) return a.getAmplifier() > b.getAmplifier();
+        if (b.getDuration() == PotionEffect.INFINITE_DURATION) return false;
+        return a.getDuration() == PotionEffect.INFINITE_DURATION || a.getDuration() > b.getDuration();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.foodabilities;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Stable small-integer ids for infusion sources (abilities and potions),
+ * stored on items as a single INTEGER tag. Ids are assigned once, persisted
+ * in ability-ids.txt and never reused, so items keep resolving after
+ * abilities are added, removed or reordered in config.
+ *
+ * <p>If the file exists but cannot be read, the registry fails closed: it
+ * leaves the file alone and assigns no ids, so items are tagged by name
+ * instead and existing id tags resolve to nothing rather than to whichever
+ * ability a renumbering would give that id.
+ */
+final class AbilityRegistry {
+    private static final String HEADER = "# FoodAbilities ability registry v";
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final Logger logger;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private int nextId = 1;
+    private boolean dirty;
+    private boolean failed;
+
+    AbilityRegistry(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    synchronized void load() {
+        ids.clear();
+        nextId = 1;
+        failed = false;
+        if (!file.isFile()) return;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(HEADER)) throw new IOException("missing header");
+            int version = Integer.parseInt(header.substring(HEADER.length()).trim());
+            if (version != FORMAT_VERSION) throw new IOException("unsupported version " + version);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                int tab = line.indexOf('\t');
+                if (tab <= 0) continue;
+                int id = Integer.parseInt(line.substring(0, tab));
+                ids.put(line.substring(tab + 1), id);
+                nextId = Math.max(nextId, id + 1);
+            }
+        } catch (IOException | NumberFormatException e) {
+            ids.clear();
+            failed = true;
+            logger.severe("Failed to read " + file.getName() + ": " + e.getMessage() + ". Leaving it untouched and"
+                + " assigning no ability ids; items tagged with ids will not resolve until it is restored.");
+        }
+    }
+
+    /** Whether the registry file could not be read and ids are disabled. */
+    synchronized boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Id for a session source key, assigning the next free one if it is new,
+     * or {@link Infusion#NO_ID} while the registry has failed.
+     */
+    synchronized int idFor(String source) {
+        if (failed) return Infusion.NO_ID;
+        Integer id = ids.get(source);
+        if (id != null) return id;
+        int assigned = nextId++;
+        ids.put(source, assigned);
+        dirty = true;
+        return assigned;
+    }
+
+    synchronized void saveIfDirty() {
+        if (!dirty || failed) return;
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(HEADER + FORMAT_VERSION);
+            writer.newLine();
+            for (Map.Entry<String, Integer> entry : new TreeMap<>(ids).entrySet()) {
+                writer.write(entry.getValue() + "\t" + entry.getKey());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to save " + file.getName() + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            logger.warning("Failed to save " + file.getName() + ": " + e.getMessage());
+        }
+    }
+}
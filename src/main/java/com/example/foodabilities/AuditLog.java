@@ -0,0 +1,241 @@
+package com.example.foodabilities;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Audit trail of infused-food crafts and consumptions. Handlers claim a
+ * preallocated slot in a bounded lock-free ring (any region thread may
+ * record); an async task drains it in batches and appends CSV lines to
+ * audit/audit.csv through a memory-mapped region, rotating the file by size.
+ * When the ring is full new entries are dropped and counted rather than
+ * blocking the tick.
+ */
+final class AuditLog {
+    private static final String HEADER = "millis,tick,action,player,name,source,base,amount,world,x,y,z\n";
+    private static final int RECENT = 100;
+
+    enum Action {
+        CRAFT,
+        CONSUME
+    }
+
+    /** One ring slot, filled by a producer and read by the writer between sequence handoffs. */
+    private static final class Slot {
+        long millis;
+        int tick;
+        Action action;
+        UUID player;
+        String name;
+        String source;
+        Material base;
+        int amount;
+        String world;
+        int x;
+        int y;
+        int z;
+    }
+
+    private final FoodAbilitiesPlugin plugin;
+    private final File dir;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final long flushIntervalMillis;
+    private final Slot[] slots;
+    // Vyukov-style per-slot sequence numbers: slot i is free for claim n when sequences[i] == n
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private long tail; // guarded by this
+    private final LongAdder dropped = new LongAdder();
+    private long reportedDropped; // guarded by this
+    private final Deque<String> recent = new ArrayDeque<>(RECENT); // guarded by this
+    private ScheduledTask task;
+
+    AuditLog(FoodAbilitiesPlugin plugin, int capacity, long flushIntervalMillis, long maxFileBytes, int maxFiles) {
+        this.plugin = plugin;
+        this.dir = new File(plugin.getDataFolder(), "audit");
+        int size = Integer.highestOneBit(Math.max(64, Math.min(1 << 20, capacity) - 1) << 1);
+        this.slots = new Slot[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.flushIntervalMillis = Math.max(50, flushIntervalMillis);
+        this.maxFileBytes = Math.max(64 * 1024, maxFileBytes);
+        this.maxFiles = Math.max(1, maxFiles);
+    }
+
+    void start() {
+        task = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, t -> flush(),
+            flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        flush();
+    }
+
+    /** Queues an entry without blocking; drops it if the ring is full. */
+    void record(Action action, Player player, String source, Material base, int amount, int tick) {
+        long pos = head.get();
+        int index;
+        while (true) {
+            index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) break;
+                pos = head.get();
+            } else if (diff < 0) {
+                dropped.increment();
+                return;
+            } else {
+                pos = head.get();
+            }
+        }
+        Slot slot = slots[index];
+        Location location = player.getLocation();
+        slot.millis = System.currentTimeMillis();
+        slot.tick = tick;
+        slot.action = action;
+        slot.player = player.getUniqueId();
+        slot.name = player.getName();
+        slot.source = source;
+        slot.base = base;
+        slot.amount = amount;
+        slot.world = location.getWorld() == null ? "" : location.getWorld().getName();
+        slot.x = location.getBlockX();
+        slot.y = location.getBlockY();
+        slot.z = location.getBlockZ();
+        sequences.set(index, pos + 1);
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    /** Up to {@code limit} most recently written lines, newest first, optionally for one player name. */
+    synchronized List<String> recent(int limit, String playerName) {
+        List<String> out = new ArrayList<>();
+        Iterator<String> it = recent.descendingIterator();
+        String needle = playerName == null ? null : "," + playerName.toLowerCase(Locale.ROOT) + ",";
+        while (it.hasNext() && out.size() < limit) {
+            String line = it.next();
+            if (needle == null || line.toLowerCase(Locale.ROOT).contains(needle)) out.add(line);
+        }
+        return out;
+    }
+
+    /** Drains the ring and appends everything to the log. Only ever one drain at a time. */
+    synchronized void flush() {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        StringBuilder line = new StringBuilder(128);
+        while (true) {
+            int index = (int) (tail & mask);
+            if (sequences.get(index) != tail + 1) break;
+            Slot slot = slots[index];
+            line.setLength(0);
+            line.append(slot.millis).append(',')
+                .append(slot.tick).append(',')
+                .append(slot.action.name().toLowerCase(Locale.ROOT)).append(',')
+                .append(slot.player).append(',')
+                .append(slot.name).append(',')
+                .append(csv(slot.source)).append(',')
+                .append(slot.base == null ? "" : slot.base.name()).append(',')
+                .append(slot.amount).append(',')
+                .append(csv(slot.world)).append(',')
+                .append(slot.x).append(',').append(slot.y).append(',').append(slot.z);
+            slot.player = null;
+            slot.name = null;
+            slot.source = null;
+            slot.world = null;
+            sequences.set(index, tail + mask + 1);
+            tail++;
+
+            String text = line.toString();
+            if (recent.size() == RECENT) recent.removeFirst();
+            recent.addLast(text);
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            batch.write(bytes, 0, bytes.length);
+            batch.write('\n');
+        }
+
+        long droppedNow = dropped.sum();
+        if (droppedNow != reportedDropped) {
+            plugin.getLogger().warning("Audit buffer full, dropped " + (droppedNow - reportedDropped)
+                + " entries (" + droppedNow + " total)");
+            reportedDropped = droppedNow;
+        }
+        if (batch.size() > 0) {
+            append(batch.toByteArray());
+        }
+    }
+
+    private void append(byte[] bytes) {
+        File file = new File(dir, "audit.csv");
+        try {
+            if (!dir.isDirectory()) Files.createDirectories(dir.toPath());
+            if (file.length() > 0 && file.length() + bytes.length > maxFileBytes) {
+                rotate(file);
+            }
+            boolean fresh = file.length() == 0;
+            byte[] header = fresh ? HEADER.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, channel.size(), header.length + bytes.length);
+                region.put(header);
+                region.put(bytes);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write audit log: " + e.getMessage());
+        }
+    }
+
+    /** audit.csv becomes audit.1.csv, older files shift up and the oldest is deleted. */
+    private void rotate(File current) throws IOException {
+        File oldest = new File(dir, "audit." + maxFiles + ".csv");
+        Files.deleteIfExists(oldest.toPath());
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            File from = new File(dir, "audit." + i + ".csv");
+            if (from.isFile()) {
+                Files.move(from.toPath(), new File(dir, "audit." + (i + 1) + ".csv").toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(current.toPath(), new File(dir, "audit.1.csv").toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
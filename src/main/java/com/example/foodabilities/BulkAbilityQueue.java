@@ -0,0 +1,244 @@
+package com.example.foodabilities;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Work queue behind {@code /foodabilities grant|revoke}. Jobs run one after
+ * another on the global region thread, each tick working through players
+ * until the configured nanosecond budget is spent, so granting an ability to
+ * hundreds of players spreads over several ticks instead of spiking one.
+ * On Folia each player's share is handed to their own scheduler instead, and
+ * the budget bounds how many are dispatched per tick.
+ */
+final class BulkAbilityQueue {
+    private static final int PROGRESS_TICKS = 20;
+
+    enum Mode {
+        GRANT,
+        REVOKE
+    }
+
+    /**
+     * Candidate players of a selector, plus a condition checked on each
+     * player's own scheduler when their turn comes (null for none).
+     */
+    static final class Selection {
+        final List<Player> players;
+        final Predicate<Player> filter;
+
+        Selection(List<Player> players, Predicate<Player> filter) {
+            this.players = players;
+            this.filter = filter;
+        }
+    }
+
+    private static final class Job {
+        final Mode mode;
+        final String abilityId;
+        final List<Player> players;
+        final Predicate<Player> filter;
+        final CommandSender sender;
+        final AtomicInteger applied = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger offline = new AtomicInteger();
+        final AtomicInteger excluded = new AtomicInteger();
+        // Players dispatched to their own scheduler but not yet processed
+        final AtomicInteger outstanding = new AtomicInteger();
+        int next;
+        int ticks;
+        long startNanos;
+
+        Job(Mode mode, String abilityId, Selection selection, CommandSender sender) {
+            this.mode = mode;
+            this.abilityId = abilityId;
+            this.players = selection.players;
+            this.filter = selection.filter;
+            this.sender = sender;
+        }
+    }
+
+    private final FoodAbilitiesPlugin plugin;
+    private final long budgetNanos;
+    private final boolean regionized;
+    private final Queue<Job> jobs = new ConcurrentLinkedQueue<>();
+    private ScheduledTask task;
+
+    BulkAbilityQueue(FoodAbilitiesPlugin plugin, long budgetNanos, boolean regionized) {
+        this.plugin = plugin;
+        this.budgetNanos = Math.max(1, budgetNanos);
+        this.regionized = regionized;
+    }
+
+    void start() {
+        task = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, t -> tick(), 1L, 1L);
+    }
+
+    void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        jobs.clear();
+    }
+
+    /** Queues a job; returns how many jobs are ahead of it. */
+    int submit(Mode mode, String abilityId, Selection selection, CommandSender sender) {
+        int ahead = jobs.size();
+        jobs.add(new Job(mode, abilityId.toLowerCase(Locale.ROOT), selection, sender));
+        return ahead;
+    }
+
+    /**
+     * Players matching a selector: a player name, {@code @a}, {@code world:<name>}
+     * or {@code radius:<blocks>} around the sender. Other players' locations belong
+     * to their regions, so the radius is checked per player when they are processed.
+     * Returns null after telling the sender why a selector is invalid.
+     */
+    static Selection select(CommandSender sender, String selector) {
+        List<Player> players = new ArrayList<>();
+        String lower = selector.toLowerCase(Locale.ROOT);
+        if (lower.equals("@a")) {
+            players.addAll(Bukkit.getOnlinePlayers());
+        } else if (lower.startsWith("world:")) {
+            World world = Bukkit.getWorld(selector.substring("world:".length()));
+            if (world == null) {
+                sender.sendMessage("Unknown world " + selector.substring("world:".length()) + ".");
+                return null;
+            }
+            players.addAll(world.getPlayers());
+        } else if (lower.startsWith("radius:")) {
+            // The sender's own location is safe to read: commands run on the sender's region
+            Location center = sender instanceof Entity ? ((Entity) sender).getLocation()
+                : sender instanceof BlockCommandSender ? ((BlockCommandSender) sender).getBlock().getLocation()
+                : null;
+            if (center == null) {
+                sender.sendMessage("radius: needs a player or command block to measure from.");
+                return null;
+            }
+            double radius;
+            try {
+                radius = Double.parseDouble(selector.substring("radius:".length()));
+            } catch (NumberFormatException e) {
+                sender.sendMessage("Invalid radius " + selector.substring("radius:".length()) + ".");
+                return null;
+            }
+            double radiusSquared = radius * radius;
+            World world = center.getWorld();
+            players.addAll(world.getPlayers());
+            return new Selection(players, player -> player.getWorld().equals(world)
+                && player.getLocation().distanceSquared(center) <= radiusSquared);
+        } else {
+            Player player = Bukkit.getPlayerExact(selector);
+            if (player == null) {
+                sender.sendMessage("Player " + selector + " is not online.");
+                return null;
+            }
+            players.add(player);
+        }
+        return new Selection(players, null);
+    }
+
+    private void tick() {
+        long deadline = System.nanoTime() + budgetNanos;
+        Job job;
+        while ((job = jobs.peek()) != null) {
+            if (job.startNanos == 0) job.startNanos = System.nanoTime();
+            job.ticks++;
+
+            // Resolved per slice, so a reload that drops the ability stops the job
+            ConfigSnapshot snapshot = plugin.getSnapshot();
+            Ability ability = snapshot.getAbility(job.abilityId);
+            Infusion infusion = snapshot.getAbilityInfusion(job.abilityId);
+            if (ability == null || infusion == null) {
+                job.sender.sendMessage("Ability " + job.abilityId + " is no longer configured; stopped after "
+                    + job.next + "/" + job.players.size() + " players.");
+                jobs.poll();
+                continue;
+            }
+
+            // Always make progress on at least one player per tick
+            while (job.next < job.players.size()) {
+                process(job, job.players.get(job.next++), ability, infusion);
+                if (System.nanoTime() - deadline >= 0) break;
+            }
+            if (job.next < job.players.size() || job.outstanding.get() > 0) {
+                if (job.ticks % PROGRESS_TICKS == 0) {
+                    job.sender.sendMessage(verb(job) + " " + job.abilityId + ": " + job.next + "/"
+                        + job.players.size() + " players processed...");
+                }
+                return;
+            }
+            finish(job);
+            jobs.poll();
+            if (System.nanoTime() - deadline >= 0) return;
+        }
+    }
+
+    private void process(Job job, Player player, Ability ability, Infusion infusion) {
+        if (!player.isOnline()) {
+            job.offline.incrementAndGet();
+            return;
+        }
+        if (!regionized) {
+            apply(job, player, ability, infusion);
+            return;
+        }
+        job.outstanding.incrementAndGet();
+        ScheduledTask scheduled = player.getScheduler().run(plugin, t -> {
+            try {
+                apply(job, player, ability, infusion);
+            } finally {
+                job.outstanding.decrementAndGet();
+            }
+        }, () -> {
+            job.offline.incrementAndGet();
+            job.outstanding.decrementAndGet();
+        });
+        if (scheduled == null) {
+            job.offline.incrementAndGet();
+            job.outstanding.decrementAndGet();
+        }
+    }
+
+    private void apply(Job job, Player player, Ability ability, Infusion infusion) {
+        if (job.filter != null && !job.filter.test(player)) {
+            job.excluded.incrementAndGet();
+            return;
+        }
+        boolean changed = job.mode == Mode.GRANT
+            ? plugin.grantAbility(player, ability, infusion)
+            : plugin.revokeAbility(player, ability, infusion);
+        (changed ? job.applied : job.skipped).incrementAndGet();
+    }
+
+    private void finish(Job job) {
+        double millis = (System.nanoTime() - job.startNanos) / 1_000_000.0;
+        String summary = job.mode == Mode.GRANT
+            ? "Granted " + job.abilityId + " to " + job.applied.get() + " players ("
+                + job.skipped.get() + " already had it"
+            : "Revoked " + job.abilityId + " from " + job.applied.get() + " players ("
+                + job.skipped.get() + " did not have it";
+        if (job.excluded.get() > 0) summary += ", " + job.excluded.get() + " out of range";
+        job.sender.sendMessage(summary + ", " + job.offline.get() + " offline) in "
+            + String.format(Locale.ROOT, "%.1f", millis) + " ms over " + job.ticks + " ticks.");
+    }
+
+    private static String verb(Job job) {
+        return job.mode == Mode.GRANT ? "Granting" : "Revoking";
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.foodabilities;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+import org.bukkit.potion.PotionType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Binary copy of the last compiled config, written to config.bin next to
+ * config.yml. It is keyed by a SHA-256 of config.yml together with the plugin
+ * and server versions, so startup can map it in and rebuild the snapshot
+ * without touching YAML, and falls back to a full parse whenever the key or
+ * the checksum does not match. Names are stored as-is and resolved with
+ * exact lookups; anything that no longer resolves invalidates the file.
+ */
+final class CompiledConfigCache {
+    private static final int FILE_MAGIC = 0x46414343; // "FACC"
+    private static final int FILE_VERSION = 3;
+    private static final int HASH_BYTES = 32;
+
+    private final File source;
+    private final File file;
+    private final Logger logger;
+    private final byte[] salt;
+
+    CompiledConfigCache(Plugin plugin) {
+        this.source = new File(plugin.getDataFolder(), "config.yml");
+        this.file = new File(plugin.getDataFolder(), "config.bin");
+        this.logger = plugin.getLogger();
+        String key = FILE_VERSION + "|" + plugin.getDescription().getVersion() + "|" + Bukkit.getBukkitVersion() + "|";
+        this.salt = key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Key of the current config.yml contents, or null if it cannot be read. */
+    byte[] hash() {
+        try {
+            return hash(Files.readAllBytes(source.toPath()));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Key of the given config.yml contents, or null if SHA-256 is unavailable. */
+    byte[] hash(byte[] contents) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            digest.update(contents);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /** Snapshot stored under the given key, or null when missing, stale or invalid. */
+    synchronized ConfigSnapshot load(byte[] hash, Plugin plugin, AbilityRegistry registry) {
+        if (!file.isFile()) return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.getInt() != FILE_MAGIC || buf.getInt() != FILE_VERSION) return null;
+            byte[] stored = new byte[HASH_BYTES];
+            buf.get(stored);
+            if (!Arrays.equals(stored, hash)) return null;
+            int length = buf.getInt();
+            ByteBuffer body = buf.slice();
+            body.limit(length);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            buf.position(buf.position() + length);
+            if ((int) crc.getValue() != buf.getInt()) throw new IOException("checksum mismatch");
+            return decode(body, plugin, registry);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Ignoring " + file.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    synchronized void save(byte[] hash, ConfigSnapshot snapshot) {
+        try {
+            byte[] body = encode(snapshot);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 48);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.write(hash);
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeInt((int) crc.getValue());
+            out.flush();
+
+            File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+            Files.write(tmp.toPath(), bytes.toByteArray());
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Failed to write " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static byte[] encode(ConfigSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(snapshot.getTemplateCacheSize());
+        out.writeBoolean(snapshot.isBatchRecipeResync());
+        out.writeInt(snapshot.getDefaultCooldownTicks());
+        out.writeInt(snapshot.getDefaultCoalesceTicks());
+        Map<String, String> settings = snapshot.getSettings().asMap();
+        out.writeInt(settings.size());
+        for (Map.Entry<String, String> entry : settings.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+
+        List<Material> infusible = snapshot.getMaterials().getInfusibleMaterials();
+        out.writeInt(infusible.size());
+        for (Material material : infusible) {
+            writeString(out, material.name());
+        }
+
+        PotionEffectTable table = snapshot.getPotionEffects();
+        writeEffects(out, table.getFallback());
+        out.writeInt(table.getMapped().size());
+        for (Map.Entry<PotionType, List<PotionEffect>> entry : table.getMapped().entrySet()) {
+            writeString(out, entry.getKey().name());
+            writeEffects(out, entry.getValue());
+        }
+
+        out.writeInt(snapshot.getAbilities().size());
+        for (Ability ability : snapshot.getAbilities().values()) {
+            writeString(out, ability.getId());
+            writeNullable(out, ability.getDisplayName());
+            out.writeInt(ability.getLoreLines().size());
+            for (String line : ability.getLoreLines()) {
+                writeString(out, line);
+            }
+            writeEffects(out, ability.getPotionEffects());
+            out.writeInt(ability.getCooldownTicks());
+            out.writeInt(ability.getCoalesceTicks());
+            out.writeInt(ability.getTriggers().size());
+            for (Trigger trigger : ability.getTriggers()) {
+                writeString(out, trigger.getType().name());
+                writeEffects(out, trigger.getEffects());
+                writeNullable(out, trigger.getEnvironment() == null ? null : trigger.getEnvironment().name());
+                out.writeInt(trigger.getWorlds().size());
+                for (String world : trigger.getWorlds()) {
+                    writeString(out, world);
+                }
+                out.writeInt(trigger.getBiomes().size());
+                for (Biome biome : trigger.getBiomes()) {
+                    writeString(out, biome.name());
+                }
+            }
+        }
+
+        out.writeInt(snapshot.getRecipes().size());
+        for (RecipeSpec spec : snapshot.getRecipes().values()) {
+            writeString(out, spec.getKey().toString());
+            writeString(out, spec.getAbilityId());
+            out.writeInt(spec.getIngredients().size());
+            for (Material material : spec.getIngredients()) {
+                writeString(out, material.name());
+            }
+            writeNullable(out, spec.getBaseMaterial() == null ? null : spec.getBaseMaterial().name());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static ConfigSnapshot decode(ByteBuffer in, Plugin plugin, AbilityRegistry registry) throws IOException {
+        int templateCacheSize = in.getInt();
+        boolean batchRecipeResync = in.get() != 0;
+        int cooldownTicks = in.getInt();
+        int coalesceTicks = in.getInt();
+        int settingCount = in.getInt();
+        Map<String, String> settings = new HashMap<>();
+        for (int i = 0; i < settingCount; i++) {
+            settings.put(readString(in), readString(in));
+        }
+
+        int infusibleCount = in.getInt();
+        List<Material> infusible = new ArrayList<>(infusibleCount);
+        for (int i = 0; i < infusibleCount; i++) {
+            infusible.add(Material.valueOf(readString(in)));
+        }
+        MaterialClassifier materials = MaterialClassifier.vanilla().withInfusible(infusible);
+
+        List<PotionEffect> fallback = readEffects(in);
+        int mappedCount = in.getInt();
+        Map<PotionType, List<PotionEffect>> mapped = new EnumMap<>(PotionType.class);
+        for (int i = 0; i < mappedCount; i++) {
+            mapped.put(PotionType.valueOf(readString(in)), readEffects(in));
+        }
+        PotionEffectTable potionEffects = PotionEffectTable.of(mapped, fallback);
+
+        int abilityCount = in.getInt();
+        Map<String, Ability> abilities = new HashMap<>();
+        for (int i = 0; i < abilityCount; i++) {
+            String id = readString(in);
+            String name = readNullable(in);
+            int loreCount = in.getInt();
+            List<String> lore = new ArrayList<>(loreCount);
+            for (int j = 0; j < loreCount; j++) {
+                lore.add(readString(in));
+            }
+            List<PotionEffect> effects = readEffects(in);
+            int abilityCooldown = in.getInt();
+            int abilityCoalesce = in.getInt();
+            int triggerCount = in.getInt();
+            List<Trigger> triggers = new ArrayList<>(triggerCount);
+            for (int j = 0; j < triggerCount; j++) {
+                Trigger.Type type = Trigger.Type.valueOf(readString(in));
+                List<PotionEffect> triggerEffects = readEffects(in);
+                String environment = readNullable(in);
+                int worldCount = in.getInt();
+                Set<String> worlds = worldCount == 0 ? Collections.emptySet() : new HashSet<>();
+                for (int k = 0; k < worldCount; k++) {
+                    worlds.add(readString(in));
+                }
+                int biomeCount = in.getInt();
+                Set<Biome> biomes = biomeCount == 0 ? Collections.emptySet() : EnumSet.noneOf(Biome.class);
+                for (int k = 0; k < biomeCount; k++) {
+                    biomes.add(Biome.valueOf(readString(in)));
+                }
+                triggers.add(new Trigger(type, triggerEffects,
+                    environment == null ? null : World.Environment.valueOf(environment), worlds, biomes));
+            }
+            abilities.put(id.toLowerCase(Locale.ROOT),
+                new Ability(id, name, lore, effects, abilityCooldown, abilityCoalesce, triggers));
+        }
+
+        int recipeCount = in.getInt();
+        Map<NamespacedKey, RecipeSpec> recipes = new LinkedHashMap<>();
+        for (int i = 0; i < recipeCount; i++) {
+            NamespacedKey key = NamespacedKey.fromString(readString(in));
+            if (key == null || !key.getNamespace().equals(plugin.getName().toLowerCase(Locale.ROOT))) {
+                throw new IOException("foreign recipe key");
+            }
+            String abilityId = readString(in);
+            if (!abilities.containsKey(abilityId)) throw new IOException("recipe for unknown ability " + abilityId);
+            int ingredientCount = in.getInt();
+            List<Material> ingredients = new ArrayList<>(ingredientCount);
+            for (int j = 0; j < ingredientCount; j++) {
+                ingredients.add(Material.valueOf(readString(in)));
+            }
+            String base = readNullable(in);
+            recipes.put(key, new RecipeSpec(key, abilityId, ingredients, base == null ? null : Material.valueOf(base)));
+        }
+        if (in.hasRemaining()) throw new IOException("trailing data");
+
+        return ConfigSnapshot.of(abilities, potionEffects, recipes, materials,
+            templateCacheSize, batchRecipeResync, cooldownTicks, coalesceTicks, PluginSettings.of(settings), registry);
+    }
+
+    private static void writeEffects(DataOutputStream out, List<PotionEffect> effects) throws IOException {
+        out.writeInt(effects.size());
+        for (PotionEffect effect : effects) {
+            writeString(out, effect.getType().getKey().toString());
+            out.writeInt(effect.getDuration());
+            out.writeInt(effect.getAmplifier());
+            out.writeByte((effect.isAmbient() ? 1 : 0) | (effect.hasParticles() ? 2 : 0) | (effect.hasIcon() ? 4 : 0));
+        }
+    }
+
+    private static List<PotionEffect> readEffects(ByteBuffer in) throws IOException {
+        int count = in.getInt();
+        List<PotionEffect> effects = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String typeKey = readString(in);
+            NamespacedKey key = NamespacedKey.fromString(typeKey);
+            PotionEffectType type = key == null ? null : PotionEffectType.getByKey(key);
+            if (type == null) throw new IOException("unknown effect " + typeKey);
+            int duration = in.getInt();
+            int amplifier = in.getInt();
+            byte flags = in.get();
+            effects.add(new PotionEffect(type, duration, amplifier, (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0));
+        }
+        return Collections.unmodifiableList(effects);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) writeString(out, value);
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) throw new IOException("bad string length");
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readNullable(ByteBuffer in) throws IOException {
+        return in.get() != 0 ? readString(in) : null;
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.foodabilities;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.potion.PotionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Everything derived from config.yml, parsed and validated in one go. Instances
+ * are immutable and safe to build on a worker thread; the plugin publishes a
+ * new one with a single reference swap.
+ */
+final class ConfigSnapshot {
+    /** Potion name stored for potions without a base type. */
+    static final String UNKNOWN_POTION = "Potion";
+
+    static final ConfigSnapshot EMPTY = new ConfigSnapshot(
+        Collections.emptyMap(), PotionEffectTable.defaults(), Collections.emptyMap(), MaterialClassifier.vanilla(),
+        256, false, 0, 1, PluginSettings.EMPTY, null);
+
+    private final Map<String, Ability> abilities;
+    private final PotionEffectTable potionEffects;
+    private final Map<NamespacedKey, RecipeSpec> recipes;
+    private final Map<NamespacedKey, RecipeResolver> recipeIndex;
+    private final MaterialClassifier materials;
+    private final int templateCacheSize;
+    private final boolean batchRecipeResync;
+    private final int defaultCooldownTicks;
+    private final int defaultCoalesceTicks;
+    private final PluginSettings settings;
+    private final Map<String, Infusion> abilityInfusions;
+    private final Map<String, Infusion> potionInfusions;
+    private final Infusion[] infusionsById;
+
+    private ConfigSnapshot(Map<String, Ability> abilities,
+                           PotionEffectTable potionEffects,
+                           Map<NamespacedKey, RecipeSpec> recipes,
+                           MaterialClassifier materials,
+                           int templateCacheSize,
+                           boolean batchRecipeResync,
+                           int defaultCooldownTicks,
+                           int defaultCoalesceTicks,
+                           PluginSettings settings,
+                           AbilityRegistry registry) {
+        this.abilities = abilities;
+        this.potionEffects = potionEffects;
+        this.recipes = recipes;
+        this.materials = materials;
+        this.templateCacheSize = templateCacheSize;
+        this.batchRecipeResync = batchRecipeResync;
+        this.defaultCooldownTicks = defaultCooldownTicks;
+        this.defaultCoalesceTicks = defaultCoalesceTicks;
+        this.settings = settings;
+
+        List<Infusion> all = new ArrayList<>();
+        Map<String, Infusion> byAbility = new HashMap<>();
+        for (Map.Entry<String, Ability> entry : abilities.entrySet()) {
+            Ability ability = entry.getValue();
+            String source = EffectSessionManager.abilitySource(ability.getId());
+            Infusion infusion = new Infusion(
+                idFor(registry, source),
+                source,
+                ability.getPotionEffects(),
+                ability.getCooldownTicks() >= 0 ? ability.getCooldownTicks() : defaultCooldownTicks,
+                ability.getCoalesceTicks() >= 0 ? ability.getCoalesceTicks() : defaultCoalesceTicks,
+                ability);
+            byAbility.put(entry.getKey(), infusion);
+            all.add(infusion);
+        }
+        this.abilityInfusions = Collections.unmodifiableMap(byAbility);
+
+        Map<String, Infusion> byPotion = new HashMap<>();
+        List<String> potionNames = new ArrayList<>();
+        for (PotionType type : PotionType.values()) {
+            potionNames.add(type.name());
+        }
+        potionNames.add(UNKNOWN_POTION);
+        for (String name : potionNames) {
+            String source = EffectSessionManager.potionSource(name);
+            Infusion infusion = new Infusion(
+                idFor(registry, source),
+                source,
+                potionEffects.effectsFor(name),
+                defaultCooldownTicks,
+                defaultCoalesceTicks);
+            byPotion.put(name, infusion);
+            all.add(infusion);
+        }
+        this.potionInfusions = Collections.unmodifiableMap(byPotion);
+
+        int maxId = 0;
+        for (Infusion infusion : all) {
+            maxId = Math.max(maxId, infusion.getId());
+        }
+        this.infusionsById = new Infusion[maxId + 1];
+        for (Infusion infusion : all) {
+            if (infusion.getId() > 0) infusionsById[infusion.getId()] = infusion;
+        }
+
+        Map<NamespacedKey, RecipeResolver> index = new HashMap<>();
+        for (RecipeSpec spec : recipes.values()) {
+            index.put(spec.getKey(), new RecipeResolver(abilities.get(spec.getAbilityId()), spec.getBaseMaterial()));
+        }
+        this.recipeIndex = Collections.unmodifiableMap(index);
+    }
+
+    /** Abilities keyed by lower-case id. */
+    Map<String, Ability> getAbilities() {
+        return abilities;
+    }
+
+    Ability getAbility(String id) {
+        return id == null ? null : abilities.get(id.toLowerCase(Locale.ROOT));
+    }
+
+    PotionEffectTable getPotionEffects() {
+        return potionEffects;
+    }
+
+    /** Precomputed infusion for an ability id, or null if it is not configured. */
+    Infusion getAbilityInfusion(String id) {
+        return id == null ? null : abilityInfusions.get(id.toLowerCase(Locale.ROOT));
+    }
+
+    /** Infusion for a stored potion name; names that are not a PotionType get the fallback effects. */
+    Infusion getPotionInfusion(String potionName) {
+        Infusion infusion = potionInfusions.get(potionName);
+        return infusion != null ? infusion : potionInfusions.get(UNKNOWN_POTION);
+    }
+
+    /** Infusion for a registry id read from an item, or null if it is not configured. */
+    Infusion getInfusion(int id) {
+        return id > 0 && id < infusionsById.length ? infusionsById[id] : null;
+    }
+
+    private static int idFor(AbilityRegistry registry, String source) {
+        return registry == null ? Infusion.NO_ID : registry.idFor(source);
+    }
+
+    /** Valid config recipes in declaration order. */
+    Map<NamespacedKey, RecipeSpec> getRecipes() {
+        return recipes;
+    }
+
+    Map<NamespacedKey, RecipeResolver> getRecipeIndex() {
+        return recipeIndex;
+    }
+
+    /** Material flags including config-declared infusible materials. */
+    MaterialClassifier getMaterials() {
+        return materials;
+    }
+
+    int getTemplateCacheSize() {
+        return templateCacheSize;
+    }
+
+    /** Whether recipe changes should be sent to clients in one resync. */
+    boolean isBatchRecipeResync() {
+        return batchRecipeResync;
+    }
+
+    int getDefaultCooldownTicks() {
+        return defaultCooldownTicks;
+    }
+
+    int getDefaultCoalesceTicks() {
+        return defaultCoalesceTicks;
+    }
+
+    /** Plugin settings such as sessions.enabled, read once on enable. */
+    PluginSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Short description of what differs from {@code previous}, such as
+     * {@code "abilities +1 ~2, recipes -1"}, or an empty string when nothing does.
+     */
+    String describeChangesFrom(ConfigSnapshot previous) {
+        List<String> parts = new ArrayList<>();
+        int added = 0;
+        int removed = 0;
+        int changed = 0;
+        for (Map.Entry<String, Ability> entry : abilities.entrySet()) {
+            Ability old = previous.abilities.get(entry.getKey());
+            if (old == null) {
+                added++;
+            } else if (!old.sameDefinition(entry.getValue())) {
+                changed++;
+            }
+        }
+        for (String id : previous.abilities.keySet()) {
+            if (!abilities.containsKey(id)) removed++;
+        }
+        addCounts(parts, "abilities", added, removed, changed);
+
+        added = 0;
+        removed = 0;
+        changed = 0;
+        for (Map.Entry<NamespacedKey, RecipeSpec> entry : recipes.entrySet()) {
+            RecipeSpec old = previous.recipes.get(entry.getKey());
+            if (old == null) {
+                added++;
+            } else if (!old.equals(entry.getValue())) {
+                changed++;
+            }
+        }
+        for (NamespacedKey key : previous.recipes.keySet()) {
+            if (!recipes.containsKey(key)) removed++;
+        }
+        addCounts(parts, "recipes", added, removed, changed);
+
+        if (!potionEffects.getMapped().equals(previous.potionEffects.getMapped())
+            || !potionEffects.getFallback().equals(previous.potionEffects.getFallback())) {
+            parts.add("potion effects");
+        }
+        if (!materials.getInfusibleMaterials().equals(previous.materials.getInfusibleMaterials())) {
+            parts.add("infusible materials");
+        }
+        if (templateCacheSize != previous.templateCacheSize
+            || batchRecipeResync != previous.batchRecipeResync
+            || defaultCooldownTicks != previous.defaultCooldownTicks
+            || defaultCoalesceTicks != previous.defaultCoalesceTicks
+            || !settings.asMap().equals(previous.settings.asMap())) {
+            parts.add("settings");
+        }
+        return String.join(", ", parts);
+    }
+
+    private static void addCounts(List<String> parts, String what, int added, int removed, int changed) {
+        if (added == 0 && removed == 0 && changed == 0) return;
+        StringBuilder sb = new StringBuilder(what);
+        if (added > 0) sb.append(" +").append(added);
+        if (removed > 0) sb.append(" -").append(removed);
+        if (changed > 0) sb.append(" ~").append(changed);
+        parts.add(sb.toString());
+    }
+
+    /** Rebuilds a snapshot from already-validated parts, as read back by {@link CompiledConfigCache}. */
+    static ConfigSnapshot of(Map<String, Ability> abilities,
+                             PotionEffectTable potionEffects,
+                             Map<NamespacedKey, RecipeSpec> recipes,
+                             MaterialClassifier materials,
+                             int templateCacheSize,
+                             boolean batchRecipeResync,
+                             int defaultCooldownTicks,
+                             int defaultCoalesceTicks,
+                             PluginSettings settings,
+                             AbilityRegistry registry) {
+        return new ConfigSnapshot(
+            Collections.unmodifiableMap(abilities),
+            potionEffects,
+            Collections.unmodifiableMap(recipes),
+            materials,
+            templateCacheSize,
+            batchRecipeResync,
+            defaultCooldownTicks,
+            defaultCoalesceTicks,
+            settings,
+            registry);
+    }
+
+    static ConfigSnapshot parse(Plugin plugin, ConfigurationSection config, Logger logger, AbilityRegistry registry) {
+        Map<String, Ability> abilities = AbilityCompiler.compile(config.getConfigurationSection("abilities"), logger);
+
+        PotionEffectTable potionEffects = PotionEffectTable.fromSection(config.getConfigurationSection("potion-effects"), logger);
+
+        List<Material> extraInfusible = new ArrayList<>();
+        for (String name : config.getStringList("infusible-materials")) {
+            Material m = Material.matchMaterial(name);
+            if (m == null) {
+                logger.warning("Unknown material in infusible-materials: " + name);
+                continue;
+            }
+            extraInfusible.add(m);
+        }
+        MaterialClassifier materials = MaterialClassifier.vanilla().withInfusible(extraInfusible);
+
+        Map<NamespacedKey, RecipeSpec> recipes = new LinkedHashMap<>();
+        if (config.isList("recipes")) {
+            int idx = 0;
+            for (Map<?, ?> raw : config.getMapList("recipes")) {
+                idx++;
+                try {
+                    RecipeSpec spec = parseRecipe(plugin, raw, idx, abilities, materials);
+                    recipes.put(spec.getKey(), spec);
+                } catch (Exception e) {
+                    logger.warning("Failed to load recipe #" + idx + ": " + e.getMessage());
+                }
+            }
+        }
+
+        int templateCacheSize = config.getInt("cache.result-templates", 256);
+        boolean batchRecipeResync = config.getBoolean("recipe-sync.batch-resync", true);
+        int cooldownTicks = config.getInt("consumption.cooldown-ticks", 0);
+        int coalesceTicks = config.getInt("consumption.coalesce-ticks", 1);
+
+        return new ConfigSnapshot(
+            Collections.unmodifiableMap(abilities),
+            potionEffects,
+            Collections.unmodifiableMap(recipes),
+            materials,
+            templateCacheSize,
+            batchRecipeResync,
+            cooldownTicks,
+            coalesceTicks,
+            PluginSettings.fromSection(config),
+            registry);
+    }
+
+    private static RecipeSpec parseRecipe(Plugin plugin, Map<?, ?> raw, int idx,
+                                          Map<String, Ability> abilities, MaterialClassifier materials) {
+        Object abilityObj = raw.get("ability");
+        String abilityId = abilityObj == null ? "" : String.valueOf(abilityObj).trim().toLowerCase(Locale.ROOT);
+        if (abilityId.isEmpty()) throw new IllegalArgumentException("recipe missing ability");
+        if (!abilities.containsKey(abilityId)) throw new IllegalArgumentException("unknown ability " + abilityId);
+
+        Object ingredientsObj = raw.get("ingredients");
+        if (!(ingredientsObj instanceof List) || ((List<?>) ingredientsObj).isEmpty()) {
+            throw new IllegalArgumentException("recipe missing ingredients");
+        }
+        List<Material> ingredients = new ArrayList<>();
+        for (Object ing : (List<?>) ingredientsObj) {
+            Material m = Material.matchMaterial(String.valueOf(ing));
+            if (m == null) throw new IllegalArgumentException("unknown material " + ing);
+            ingredients.add(m);
+        }
+
+        // Optional result base material
+        Material base = null;
+        Object resultObj = raw.get("result");
+        if (resultObj != null) {
+            Material m = Material.matchMaterial(String.valueOf(resultObj));
+            if (m != null && materials.isInfusible(m)) {
+                base = m;
+            }
+        }
+
+        NamespacedKey key = new NamespacedKey(plugin, "cfg_" + abilityId + "_" + idx);
+        return new RecipeSpec(key, abilityId, ingredients, base);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.foodabilities;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Reloads config.yml when it changes on disk, for servers whose config is
+ * deployed by external tooling. A daemon thread watches the data folder;
+ * once writes to config.yml have been quiet for the debounce interval and
+ * its content hash differs from the last one applied, it hands off to the
+ * plugin's off-thread reload, which rejects a file that does not validate.
+ */
+final class ConfigWatcher {
+    private static final String FILE_NAME = "config.yml";
+
+    /** Forwards to the plugin logger and counts the warnings logged through it. */
+    static final class WarningCounter extends Logger {
+        private final Logger target;
+        private int warnings;
+
+        WarningCounter(Logger target) {
+            super(target.getName(), null);
+            this.target = target;
+        }
+
+        @Override
+        public void log(LogRecord record) {
+            if (record.getLevel().intValue() >= Level.WARNING.intValue()) warnings++;
+            target.log(record);
+        }
+
+        int getWarnings() {
+            return warnings;
+        }
+    }
+
+    private final FoodAbilitiesPlugin plugin;
+    private final Path dir;
+    private final long debounceMillis;
+    private volatile WatchService service;
+    private Thread thread;
+    private byte[] appliedHash; // watcher thread only, after start
+
+    ConfigWatcher(FoodAbilitiesPlugin plugin, long debounceMillis) {
+        this.plugin = plugin;
+        this.dir = plugin.getDataFolder().toPath();
+        this.debounceMillis = Math.max(50, debounceMillis);
+    }
+
+    void start() {
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not watch config.yml for changes: " + e.getMessage());
+            stop();
+            return;
+        }
+        appliedHash = plugin.configHash();
+        thread = new Thread(this::run, "FoodAbilities Config Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        WatchService current = service;
+        service = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {}
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        boolean pending = false;
+        try {
+            while (service != null) {
+                WatchService current = service;
+                // Wait for the first write, or re-check soon if a reload was busy last time
+                WatchKey key = pending ? current.poll(debounceMillis, TimeUnit.MILLISECONDS) : current.take();
+                if (key != null && !drain(key) && !pending) continue;
+
+                // Debounce: keep draining until config.yml has been quiet for a full interval
+                while ((key = current.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drain(key);
+                }
+
+                byte[] hash = plugin.configHash();
+                if (hash == null || Arrays.equals(hash, appliedHash)) {
+                    pending = false;
+                    continue;
+                }
+                pending = !plugin.reloadChangedConfig();
+                if (!pending) appliedHash = hash;
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // stopped
+        }
+    }
+
+    /** Consumes a key's events and resets it; true if any of them may concern config.yml. */
+    private static boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (event.context() instanceof Path && FILE_NAME.equals(((Path) event.context()).toString())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+}
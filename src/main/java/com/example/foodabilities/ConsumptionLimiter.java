@@ -0,0 +1,56 @@
+package com.example.foodabilities;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player tick bookkeeping for right-click consumption. Clicks inside a
+ * player's coalescing window collapse into the application that opened it,
+ * and each infusion source can carry its own cooldown. A player's entry is
+ * only touched from the thread that owns that player.
+ */
+final class ConsumptionLimiter {
+
+    enum Result {
+        ALLOWED,
+        COALESCED,
+        COOLDOWN
+    }
+
+    private static final class State {
+        int lastTick = Integer.MIN_VALUE / 2;
+        Map<String, Integer> sourceTicks; // created on first cooldown
+    }
+
+    private final Map<UUID, State> states = new ConcurrentHashMap<>();
+
+    Result tryAcquire(UUID playerId, Infusion infusion, int now) {
+        State state = states.computeIfAbsent(playerId, id -> new State());
+        if (now - state.lastTick < infusion.getCoalesceTicks()) {
+            return Result.COALESCED;
+        }
+        int cooldown = infusion.getCooldownTicks();
+        if (cooldown > 0 && state.sourceTicks != null) {
+            Integer last = state.sourceTicks.get(infusion.getSource());
+            if (last != null && now - last < cooldown) {
+                return Result.COOLDOWN;
+            }
+        }
+        state.lastTick = now;
+        if (cooldown > 0) {
+            if (state.sourceTicks == null) state.sourceTicks = new HashMap<>(4);
+            state.sourceTicks.put(infusion.getSource(), now);
+        }
+        return Result.ALLOWED;
+    }
+
+    void forget(UUID playerId) {
+        states.remove(playerId);
+    }
+
+    void clear() {
+        states.clear();
+    }
+}
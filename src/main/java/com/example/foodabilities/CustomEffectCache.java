@@ -0,0 +1,229 @@
+package com.example.foodabilities;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Infusions for potions that carry custom effects. Each potion's effect set
+ * is canonicalized into a compact fingerprint stored on the infused item,
+ * {@code <potion name>|<effect>,<amplifier>,<flags>,<duration>;...} with
+ * effects sorted by key and merged to the strongest per type. A bounded LRU maps
+ * fingerprints to precomputed infusions, so consuming one allocates nothing
+ * and any number of distinct potions stays within a fixed footprint.
+ *
+ * <p>Fingerprints are stored signed, {@code <fingerprint>#<mac>}, with an
+ * HMAC keyed by a per-server secret in secret.key, so an item whose tag was
+ * edited or copied from another server resolves to nothing.
+ *
+ * <p>Custom effects keep the potion's own duration and their amplifier is
+ * capped at {@code custom-effects.max-amplifier}, so a short or absurdly
+ * strong potion from another plugin does not become a permanent effect.
+ */
+final class CustomEffectCache {
+    /** Upper bound on effects kept per fingerprint, against absurd potions. */
+    private static final int MAX_EFFECTS = 32;
+    private static final int SECRET_BYTES = 32;
+    private static final int MAC_BYTES = 16;
+    /** Level 10, the strongest amplifier the configured potion effects use. */
+    static final int DEFAULT_MAX_AMPLIFIER = 9;
+
+    private static final class Entry {
+        final ConfigSnapshot snapshot;
+        final Infusion infusion;
+
+        Entry(ConfigSnapshot snapshot, Infusion infusion) {
+            this.snapshot = snapshot;
+            this.infusion = infusion;
+        }
+    }
+
+    private final int maxSize;
+    private final SecretKeySpec secret;
+    private final Map<String, Entry> entries;
+
+    CustomEffectCache(int maxSize, byte[] secret) {
+        this.maxSize = Math.max(1, maxSize);
+        this.secret = new SecretKeySpec(secret, "HmacSHA256");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CustomEffectCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Secret stored in {@code file}, created on first use. If it cannot be read or
+     * written a temporary one is used, and signed items stop resolving after a restart.
+     */
+    static byte[] loadSecret(File file, Logger logger) {
+        try {
+            if (file.isFile()) {
+                byte[] stored = Files.readAllBytes(file.toPath());
+                if (stored.length == SECRET_BYTES) return stored;
+                logger.warning(file.getName() + " has the wrong length, not using it");
+            } else {
+                byte[] created = new byte[SECRET_BYTES];
+                new SecureRandom().nextBytes(created);
+                Files.createDirectories(file.getParentFile().toPath());
+                Files.write(file.toPath(), created);
+                return created;
+            }
+        } catch (IOException e) {
+            logger.warning("Could not read or create " + file.getName() + ": " + e.getMessage());
+        }
+        byte[] temporary = new byte[SECRET_BYTES];
+        new SecureRandom().nextBytes(temporary);
+        return temporary;
+    }
+
+    /** Canonical fingerprint of a potion's name and custom effects. */
+    static String fingerprint(String potionName, Collection<PotionEffect> customEffects) {
+        TreeMap<String, PotionEffect> byKey = new TreeMap<>();
+        for (PotionEffect effect : customEffects) {
+            String key = typeKey(effect.getType());
+            PotionEffect existing = byKey.get(key);
+            if (existing == null || AbilityCompiler.stronger(effect, existing)) {
+                byKey.put(key, effect);
+            }
+        }
+        // Truncate only after sorting, so the same effects always give the same fingerprint
+        StringBuilder sb = new StringBuilder(potionName).append('|');
+        int count = 0;
+        for (Map.Entry<String, PotionEffect> entry : byKey.entrySet()) {
+            if (count == MAX_EFFECTS) break;
+            PotionEffect effect = entry.getValue();
+            if (count++ > 0) sb.append(';');
+            sb.append(entry.getKey()).append(',').append(effect.getAmplifier()).append(',')
+                .append((effect.isAmbient() ? 1 : 0) | (effect.hasParticles() ? 2 : 0) | (effect.hasIcon() ? 4 : 0))
+                .append(',').append(effect.getDuration());
+        }
+        return sb.toString();
+    }
+
+    /** A fingerprint with its signature appended, as stored on items. */
+    String sign(String fingerprint) {
+        return fingerprint + '#' + mac(fingerprint);
+    }
+
+    /** The fingerprint of a signed value, or null if its signature does not match. */
+    private String verify(String signed) {
+        int hash = signed.lastIndexOf('#');
+        if (hash < 0) return null;
+        String fingerprint = signed.substring(0, hash);
+        byte[] expected = mac(fingerprint).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = signed.substring(hash + 1).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual) ? fingerprint : null;
+    }
+
+    private String mac(String fingerprint) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(secret);
+            byte[] full = mac.doFinal(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(full, MAC_BYTES));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    /** Potion name a fingerprint was built from. */
+    static String potionName(String fingerprint) {
+        int bar = fingerprint.indexOf('|');
+        return bar < 0 ? fingerprint : fingerprint.substring(0, bar);
+    }
+
+    /** Highest amplifier granted for a custom effect under a snapshot's settings. */
+    static int maxAmplifier(ConfigSnapshot snapshot) {
+        return Math.max(0, snapshot.getSettings().getInt("custom-effects.max-amplifier", DEFAULT_MAX_AMPLIFIER));
+    }
+
+    /**
+     * Custom effects encoded in a fingerprint, with amplifiers capped at
+     * {@code maxAmplifier}. Unknown types, expired durations and entries
+     * without a duration are skipped.
+     */
+    static List<PotionEffect> customEffects(String fingerprint, int maxAmplifier) {
+        int bar = fingerprint.indexOf('|');
+        if (bar < 0 || bar == fingerprint.length() - 1) return Collections.emptyList();
+        List<PotionEffect> effects = new ArrayList<>();
+        for (String part : fingerprint.substring(bar + 1).split(";")) {
+            String[] fields = part.split(",");
+            if (fields.length != 4) continue;
+            NamespacedKey key = NamespacedKey.fromString(fields[0]);
+            PotionEffectType type = key == null ? null : PotionEffectType.getByKey(key);
+            if (type == null) continue;
+            try {
+                int amplifier = Math.min(maxAmplifier, Math.max(0, Integer.parseInt(fields[1])));
+                int flags = Integer.parseInt(fields[2]);
+                int duration = Integer.parseInt(fields[3]);
+                if (duration <= 0 && duration != PotionEffect.INFINITE_DURATION) continue;
+                effects.add(new PotionEffect(type, duration, amplifier,
+                    (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0));
+            } catch (NumberFormatException ignored) {}
+            if (effects.size() >= MAX_EFFECTS) break;
+        }
+        return effects;
+    }
+
+    /**
+     * Infusion for a signed fingerprint under the given snapshot: the configured
+     * effects of its potion merged with its custom effects. Null if the signature
+     * does not verify.
+     */
+    synchronized Infusion get(String signed, ConfigSnapshot snapshot) {
+        Entry entry = entries.get(signed);
+        if (entry != null && entry.snapshot == snapshot) return entry.infusion;
+        String fingerprint = entry != null ? verifiedOf(signed) : verify(signed);
+        if (fingerprint == null) return null;
+
+        Infusion base = snapshot.getPotionInfusion(potionName(fingerprint));
+        Map<PotionEffectType, PotionEffect> merged = new LinkedHashMap<>();
+        AbilityCompiler.merge(merged, base.getEffects());
+        AbilityCompiler.merge(merged, customEffects(fingerprint, maxAmplifier(snapshot)));
+        Infusion infusion = new Infusion(Infusion.NO_ID, EffectSessionManager.customSource(signed),
+            Collections.unmodifiableList(new ArrayList<>(merged.values())),
+            base.getCooldownTicks(), base.getCoalesceTicks());
+        entries.put(signed, new Entry(snapshot, infusion));
+        return infusion;
+    }
+
+    /** Fingerprint of a signed value that was verified when it was cached. */
+    private static String verifiedOf(String signed) {
+        return signed.substring(0, signed.lastIndexOf('#'));
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    private static String typeKey(PotionEffectType type) {
+        NamespacedKey key = type.getKey();
+        return NamespacedKey.MINECRAFT.equals(key.getNamespace()) ? key.getKey() : key.toString();
+    }
+}
@@ -0,0 +1,443 @@
+package com.example.foodabilities;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPotionEffectEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which infinite (or triggered) abilities each player has been granted, re-applies
+ * them after join, respawn and milk, and persists them to sessions.dat. The
+ * infinite effects are stripped again on quit, so sessions.dat is their only
+ * copy rather than a second one next to the player data.
+ *
+ * <p>Source keys are interned to small ints, so each player holds a sorted
+ * {@code int[]} and a custom-effect source, which can be long, is kept and
+ * written once however many players have it. The ids are local to this
+ * manager and renumbered on every write; items never see them.
+ * Per-player arrays are immutable and replaced atomically, so grants from
+ * different region threads never interfere; effects are always applied on
+ * the player's own scheduler.
+ */
+final class EffectSessionManager implements Listener {
+    private static final int FILE_MAGIC = 0x46414553; // "FAES"
+    // 1: source strings per player; 2: one source table, int indices per player
+    private static final int FILE_VERSION = 2;
+    private static final int[] NONE = new int[0];
+    private static final String ABILITY_PREFIX = "a:";
+    private static final String POTION_PREFIX = "p:";
+    private static final String CUSTOM_PREFIX = "c:";
+
+    private final FoodAbilitiesPlugin plugin;
+    private final File file;
+    private final Map<UUID, int[]> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> sourceIds = new ConcurrentHashMap<>();
+    private volatile String[] sourceNames = new String[16]; // by id, grown under internLock
+    private int nextSourceId; // guarded by internLock
+    private final Object internLock = new Object();
+    // Players whose effects should be re-applied on the next task run
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final Object writeLock = new Object();
+    private final AtomicLong generation = new AtomicLong();
+    private long writtenGeneration; // guarded by writeLock
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private ScheduledTask task;
+
+    EffectSessionManager(FoodAbilitiesPlugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "sessions.dat");
+    }
+
+    static String abilitySource(String abilityId) {
+        return ABILITY_PREFIX + abilityId;
+    }
+
+    static String potionSource(String potionName) {
+        return POTION_PREFIX + potionName;
+    }
+
+    /** Source of a potion with custom effects, see {@link CustomEffectCache#fingerprint}. */
+    static String customSource(String fingerprint) {
+        return CUSTOM_PREFIX + fingerprint;
+    }
+
+    static boolean isAbilitySource(String source) {
+        return source.startsWith(ABILITY_PREFIX);
+    }
+
+    static boolean isCustomSource(String source) {
+        return source.startsWith(CUSTOM_PREFIX);
+    }
+
+    /** Strips the source prefix, leaving the ability id, potion name or fingerprint. */
+    static String sourceId(String source) {
+        return source.substring(2);
+    }
+
+    void start() {
+        load();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (sessions.containsKey(player.getUniqueId())) pending.add(player.getUniqueId());
+        }
+        task = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, t -> tick(), 20L, 20L);
+    }
+
+    void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        // Shutdown saves player data after plugins are disabled, without quit events
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (Bukkit.isOwnedByCurrentRegion(player)) strip(player);
+        }
+        if (dirty.getAndSet(false)) {
+            write(encode(), generation.incrementAndGet());
+        }
+        pending.clear();
+    }
+
+    /** Records a granted source if any of its effects are infinite or it carries triggers. */
+    void grant(Player player, String source, List<PotionEffect> effects, boolean hasTriggers) {
+        if (!hasTriggers && !hasInfinite(effects)) return;
+        int sourceId = intern(source);
+        int[] current = sessions.get(player.getUniqueId());
+        if (current != null && Arrays.binarySearch(current, sourceId) >= 0) return;
+        sessions.compute(player.getUniqueId(), (id, sources) -> with(sources, sourceId));
+        dirty.set(true);
+    }
+
+    /** Source keys granted to a player, in id order. */
+    List<String> getSources(UUID playerId) {
+        int[] ids = sessions.get(playerId);
+        if (ids == null) return Collections.emptyList();
+        List<String> sources = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            sources.add(sourceName(id));
+        }
+        return sources;
+    }
+
+    /**
+     * Forgets every granted source and removes their infinite effects. Must
+     * run on the player's scheduler. Returns how many were revoked.
+     */
+    int revokeAll(Player player) {
+        int[] sources = sessions.remove(player.getUniqueId());
+        if (sources == null) return 0;
+        for (int source : sources) {
+            removeInfinite(player, plugin.sessionEffects(sourceName(source)));
+        }
+        pending.remove(player.getUniqueId());
+        dirty.set(true);
+        return sources.length;
+    }
+
+    /**
+     * Forgets one granted source and removes its infinite effects, except types
+     * a remaining source also grants. Must run on the player's scheduler.
+     * Returns whether the source was granted.
+     */
+    boolean revoke(Player player, String source) {
+        Integer sourceId = sourceIds.get(source);
+        int[] current = sessions.get(player.getUniqueId());
+        if (sourceId == null || current == null || Arrays.binarySearch(current, sourceId) < 0) return false;
+        int[] remaining = sessions.computeIfPresent(player.getUniqueId(), (id, sources) -> without(sources, sourceId));
+        Set<PotionEffectType> kept = new HashSet<>();
+        if (remaining != null) {
+            for (int other : remaining) {
+                List<PotionEffect> effects = plugin.sessionEffects(sourceName(other));
+                if (effects == null) continue;
+                for (PotionEffect effect : effects) {
+                    kept.add(effect.getType());
+                }
+            }
+        }
+        List<PotionEffect> effects = plugin.sessionEffects(source);
+        if (effects != null) {
+            List<PotionEffect> removable = new ArrayList<>(effects.size());
+            for (PotionEffect effect : effects) {
+                if (!kept.contains(effect.getType())) removable.add(effect);
+            }
+            removeInfinite(player, removable);
+        }
+        if (remaining == null) pending.remove(player.getUniqueId());
+        dirty.set(true);
+        return true;
+    }
+
+    private static int[] without(int[] sources, int source) {
+        int at = Arrays.binarySearch(sources, source);
+        if (at < 0) return sources;
+        if (sources.length == 1) return null;
+        int[] copy = new int[sources.length - 1];
+        System.arraycopy(sources, 0, copy, 0, at);
+        System.arraycopy(sources, at + 1, copy, at, copy.length - at);
+        return copy;
+    }
+
+    private static int[] with(int[] sources, int source) {
+        if (sources == null) sources = NONE;
+        int at = Arrays.binarySearch(sources, source);
+        if (at >= 0) return sources;
+        int insert = -at - 1;
+        int[] copy = new int[sources.length + 1];
+        System.arraycopy(sources, 0, copy, 0, insert);
+        copy[insert] = source;
+        System.arraycopy(sources, insert, copy, insert + 1, sources.length - insert);
+        return copy;
+    }
+
+    /** Id of a source key, assigning the next one if it is new. */
+    private int intern(String source) {
+        Integer id = sourceIds.get(source);
+        if (id != null) return id;
+        synchronized (internLock) {
+            id = sourceIds.get(source);
+            if (id != null) return id;
+            int assigned = nextSourceId++;
+            String[] names = sourceNames;
+            if (assigned == names.length) {
+                names = Arrays.copyOf(names, names.length * 2);
+            }
+            names[assigned] = source;
+            // Publish the name before the id, so anyone holding the id can read it
+            sourceNames = names;
+            sourceIds.put(source, assigned);
+            return assigned;
+        }
+    }
+
+    private String sourceName(int id) {
+        return sourceNames[id];
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        markPending(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        pending.remove(event.getPlayer().getUniqueId());
+        strip(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onRespawn(PlayerRespawnEvent event) {
+        markPending(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPotionEffect(EntityPotionEffectEvent event) {
+        if (event.getCause() != EntityPotionEffectEvent.Cause.MILK) return;
+        if (event.getEntity() instanceof Player) {
+            markPending((Player) event.getEntity());
+        }
+    }
+
+    private void markPending(Player player) {
+        if (sessions.containsKey(player.getUniqueId())) {
+            pending.add(player.getUniqueId());
+        }
+    }
+
+    private void tick() {
+        if (!pending.isEmpty()) {
+            for (UUID id : pending) {
+                pending.remove(id);
+                Player player = Bukkit.getPlayer(id);
+                if (player == null) continue;
+                player.getScheduler().run(plugin, t -> {
+                    if (!player.isDead()) reapply(player);
+                }, null);
+            }
+        }
+        if (dirty.getAndSet(false)) {
+            long gen = generation.incrementAndGet();
+            byte[] data = encode();
+            Bukkit.getAsyncScheduler().runNow(plugin, t -> write(data, gen));
+        }
+    }
+
+    private void reapply(Player player) {
+        int[] sources = sessions.get(player.getUniqueId());
+        if (sources == null) return;
+        for (int source : sources) {
+            List<PotionEffect> effects = plugin.sessionEffects(sourceName(source));
+            // Not in the current config: kept, since a later reload may bring it back.
+            // Only session clear or a revoke forgets a source.
+            if (effects == null) continue;
+            for (int i = 0, n = effects.size(); i < n; i++) {
+                PotionEffect effect = effects.get(i);
+                if (effect.getDuration() != PotionEffect.INFINITE_DURATION) continue;
+                PotionEffect active = player.getPotionEffect(effect.getType());
+                if (active == null || active.getAmplifier() < effect.getAmplifier()) {
+                    player.addPotionEffect(effect);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the infinite effects this manager re-applies, where the active one
+     * is exactly what a session grants, before the player's data is saved.
+     */
+    private void strip(Player player) {
+        int[] sources = sessions.get(player.getUniqueId());
+        if (sources == null) return;
+        for (int source : sources) {
+            List<PotionEffect> effects = plugin.sessionEffects(sourceName(source));
+            if (effects == null) continue;
+            for (int i = 0, n = effects.size(); i < n; i++) {
+                PotionEffect effect = effects.get(i);
+                if (effect.getDuration() != PotionEffect.INFINITE_DURATION) continue;
+                PotionEffect active = player.getPotionEffect(effect.getType());
+                if (active != null && active.getDuration() == PotionEffect.INFINITE_DURATION
+                    && active.getAmplifier() == effect.getAmplifier()) {
+                    player.removePotionEffect(effect.getType());
+                }
+            }
+        }
+    }
+
+    /** Whether any of the effects has infinite duration. */
+    static boolean hasInfinite(List<PotionEffect> effects) {
+        for (int i = 0, n = effects.size(); i < n; i++) {
+            if (effects.get(i).getDuration() == PotionEffect.INFINITE_DURATION) return true;
+        }
+        return false;
+    }
+
+    /** Removes the given effects where the player has them at infinite duration; returns whether any were. */
+    static boolean removeInfinite(Player player, List<PotionEffect> effects) {
+        if (effects == null) return false;
+        boolean removed = false;
+        for (PotionEffect effect : effects) {
+            if (effect.getDuration() != PotionEffect.INFINITE_DURATION) continue;
+            PotionEffect active = player.getPotionEffect(effect.getType());
+            if (active != null && active.getDuration() == PotionEffect.INFINITE_DURATION) {
+                player.removePotionEffect(effect.getType());
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    private byte[] encode() {
+        // Copy first: the map may change under us, and the count must match the entries
+        List<Map.Entry<UUID, int[]>> entries = new ArrayList<>(sessions.entrySet());
+        // Only sources someone still has are written, numbered in order of first use
+        Map<Integer, Integer> fileIds = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        for (Map.Entry<UUID, int[]> entry : entries) {
+            for (int source : entry.getValue()) {
+                if (fileIds.putIfAbsent(source, table.size()) == null) table.add(sourceName(source));
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + table.size() * 32 + entries.size() * 24);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(table.size());
+            for (String source : table) {
+                out.writeUTF(source);
+            }
+            out.writeInt(entries.size());
+            for (Map.Entry<UUID, int[]> entry : entries) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeShort(entry.getValue().length);
+                for (int source : entry.getValue()) {
+                    out.writeInt(fileIds.get(source));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen for an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    private void write(byte[] data, long gen) {
+        synchronized (writeLock) {
+            // A newer snapshot may already be on disk if writes finished out of order
+            if (gen <= writtenGeneration) return;
+            writtenGeneration = gen;
+            try {
+                File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+                Files.write(tmp.toPath(), data);
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to save effect sessions: " + e.getMessage());
+            }
+        }
+    }
+
+    private void load() {
+        sessions.clear();
+        if (!file.isFile()) return;
+        try (InputStream in = Files.newInputStream(file.toPath());
+             DataInputStream data = new DataInputStream(in)) {
+            if (data.readInt() != FILE_MAGIC) throw new IOException("not a session file");
+            int version = data.readInt();
+            if (version != 1 && version != FILE_VERSION) throw new IOException("unsupported version " + version);
+            int[] table = null;
+            if (version == FILE_VERSION) {
+                table = new int[data.readInt()];
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = intern(data.readUTF());
+                }
+            }
+            int players = data.readInt();
+            for (int p = 0; p < players; p++) {
+                UUID id = new UUID(data.readLong(), data.readLong());
+                int count = data.readUnsignedShort();
+                int[] sources = null;
+                for (int i = 0; i < count; i++) {
+                    int source;
+                    if (table == null) {
+                        source = intern(data.readUTF());
+                    } else {
+                        int index = data.readInt();
+                        if (index < 0 || index >= table.length) throw new IOException("bad source index " + index);
+                        source = table[index];
+                    }
+                    sources = with(sources, source);
+                }
+                if (sources != null) sessions.put(id, sources);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load effect sessions: " + e.getMessage());
+            sessions.clear();
+        }
+    }
+}
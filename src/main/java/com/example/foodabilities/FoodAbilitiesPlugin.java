@@ -1,91 +1,372 @@
 package com.example.foodabilities;
 
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
-import org.bukkit.Keyed;
 import org.bukkit.Tag;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.inventory.CraftItemEvent;
 import org.bukkit.event.inventory.PrepareItemCraftEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.*;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.PotionMeta;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.potion.PotionEffect;
-import org.bukkit.potion.PotionEffectType;
 import org.bukkit.potion.PotionType;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
 
 public class FoodAbilitiesPlugin extends JavaPlugin implements Listener {
 
+    private static final int INFUSED_MODEL_DATA = 90210;
+    private static final boolean FOLIA = isFolia();
+
     private NamespacedKey recipeKey;
+    // Legacy string tags, still read for items infused before the integer registry
     private NamespacedKey keyAbilityId;
-    private Map<String, Ability> abilityById = new HashMap<>();
-    private Map<String, Material> recipeBaseByKey = new HashMap<>();
+    private NamespacedKey keyEffect;
+    private NamespacedKey keyInfusionId;
+    private NamespacedKey keyCustomEffects;
+    private AbilityRegistry registry;
+    private CompiledConfigCache compiledConfig;
+    // Immutable; replaced wholesale by publishSnapshot so readers never see a partial reload
+    private volatile ConfigSnapshot snapshot = ConfigSnapshot.EMPTY;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    // Keys this plugin currently has registered with the server (global region thread only)
+    private final Set<NamespacedKey> registeredRecipes = new HashSet<>();
+    private volatile ResultTemplateCache resultTemplates = new ResultTemplateCache(256);
+    private CustomEffectCache customEffects;
+    private EffectSessionManager sessions;
+    private TriggerEngine triggers;
+    private AuditLog audit;
+    private ConfigWatcher configWatcher;
+    private BulkAbilityQueue bulk;
+    private final HotPathMetrics metrics = new HotPathMetrics();
+    private final ConsumptionLimiter limiter = new ConsumptionLimiter();
+    private ScheduledTask metricsDumpTask;
 
     @Override
     public void onEnable() {
         Bukkit.getPluginManager().registerEvents(this, this);
         this.recipeKey = new NamespacedKey(this, "infused_food");
         this.keyAbilityId = new NamespacedKey(this, "ability");
+        this.keyEffect = new NamespacedKey(this, "effect");
+        this.keyInfusionId = new NamespacedKey(this, "aid");
+        this.keyCustomEffects = new NamespacedKey(this, "fx");
         saveDefaultConfig();
+        this.registry = new AbilityRegistry(new File(getDataFolder(), "ability-ids.txt"), getLogger());
+        registry.load();
+        this.compiledConfig = new CompiledConfigCache(this);
         reloadPluginConfig();
-        registerDynamicRecipeInfo();
+        PluginSettings settings = snapshot.getSettings();
+        this.customEffects = new CustomEffectCache(settings.getInt("cache.custom-effects", 1024),
+            CustomEffectCache.loadSecret(new File(getDataFolder(), "secret.key"), getLogger()));
+        if (settings.getBoolean("sessions.enabled", true)) {
+            sessions = new EffectSessionManager(this);
+            Bukkit.getPluginManager().registerEvents(sessions, this);
+            sessions.start();
+        }
+        if (settings.getBoolean("audit.enabled", true)) {
+            audit = new AuditLog(this,
+                settings.getInt("audit.buffer-size", 8192),
+                settings.getLong("audit.flush-interval-ms", 1000),
+                settings.getLong("audit.max-file-kb", 16384) * 1024L,
+                settings.getInt("audit.max-files", 5));
+            audit.start();
+        }
+        triggers = new TriggerEngine(this, sessions, metrics);
+        Bukkit.getPluginManager().registerEvents(triggers, this);
+        if (settings.getBoolean("auto-reload.enabled", false)) {
+            configWatcher = new ConfigWatcher(this, settings.getLong("auto-reload.debounce-ms", 500));
+            configWatcher.start();
+        }
+        bulk = new BulkAbilityQueue(this, settings.getLong("bulk.tick-budget-ns", 2_000_000L), FOLIA);
+        bulk.start();
+        startMetrics(settings);
         getLogger().info("FoodAbilities enabled");
     }
 
     @Override
     public void onDisable() {
-        abilityById.clear();
-        recipeBaseByKey.clear();
+        if (configWatcher != null) {
+            configWatcher.stop();
+            configWatcher = null;
+        }
+        if (bulk != null) {
+            bulk.stop();
+            bulk = null;
+        }
+        if (metricsDumpTask != null) {
+            metricsDumpTask.cancel();
+            metricsDumpTask = null;
+        }
+        if (triggers != null) {
+            triggers.clear();
+            triggers = null;
+        }
+        if (audit != null) {
+            audit.stop();
+            audit = null;
+        }
+        if (sessions != null) {
+            sessions.stop();
+            sessions = null;
+        }
+        // Drop our recipes so a plugin reload starts from a clean registry
+        boolean batch = snapshot.isBatchRecipeResync();
+        for (NamespacedKey key : registeredRecipes) {
+            try {
+                Bukkit.removeRecipe(key, !batch);
+            } catch (Throwable ignored) {}
+        }
+        if (batch && !registeredRecipes.isEmpty()) {
+            Bukkit.updateRecipes();
+        }
+        registeredRecipes.clear();
+        limiter.clear();
+        snapshot = ConfigSnapshot.EMPTY;
+        resultTemplates.invalidate();
     }
 
+    /**
+     * Reloads config.yml and publishes it on the calling (main) thread. The
+     * reload command uses {@link #reloadPluginConfigAsync} instead. Bukkit's
+     * own {@link #getConfig()} copy is not loaded: on a config.bin hit nothing
+     * parses YAML at all.
+     */
     public void reloadPluginConfig() {
-        reloadConfig();
-        abilityById.clear();
-        recipeBaseByKey.clear();
-        if (getConfig().isConfigurationSection("abilities")) {
-            for (String id : getConfig().getConfigurationSection("abilities").getKeys(false)) {
-                Ability ability = Ability.fromSection(id, getConfig().getConfigurationSection("abilities." + id));
-                abilityById.put(id.toLowerCase(Locale.ROOT), ability);
-            }
+        ConfigSnapshot next;
+        try {
+            next = compileConfig(getLogger(), false);
+        } catch (IOException | InvalidConfigurationException e) {
+            getLogger().severe("Failed to load config.yml, using the defaults: " + e.getMessage());
+            next = ConfigSnapshot.parse(this, defaultConfig(), getLogger(), registry);
         }
+        registry.saveIfDirty();
+        publishSnapshot(next);
     }
 
-    private void registerDynamicRecipeInfo() {
-        // Remove existing recipes from this plugin namespace (for reloads)
-        try {
-            Iterator<Recipe> it = Bukkit.recipeIterator();
-            List<NamespacedKey> toRemove = new ArrayList<>();
-            while (it.hasNext()) {
-                Recipe r = it.next();
-                if (r instanceof Keyed) {
-                    NamespacedKey k = ((Keyed) r).getKey();
-                    if (k.getNamespace().equals(this.getName().toLowerCase(Locale.ROOT))) {
-                        toRemove.add(k);
+    /**
+     * Snapshot of config.yml, read back from config.bin when it was compiled
+     * from identical contents, otherwise parsed from YAML and written there.
+     * The file is read once, so the hash always matches what was parsed. When
+     * {@code strict}, a file that logs validation warnings is rejected before
+     * anything is written to config.bin.
+     */
+    private ConfigSnapshot compileConfig(Logger logger, boolean strict) throws IOException, InvalidConfigurationException {
+        byte[] contents = Files.readAllBytes(new File(getDataFolder(), "config.yml").toPath());
+        byte[] hash = compiledConfig == null ? null : compiledConfig.hash(contents);
+        if (hash != null) {
+            ConfigSnapshot cached = compiledConfig.load(hash, this, registry);
+            if (cached != null) return cached;
+        }
+        YamlConfiguration config = new YamlConfiguration();
+        config.loadFromString(new String(contents, StandardCharsets.UTF_8));
+        config.setDefaults(defaultConfig());
+        ConfigWatcher.WarningCounter counter = new ConfigWatcher.WarningCounter(logger);
+        ConfigSnapshot parsed = ConfigSnapshot.parse(this, config, counter, registry);
+        if (strict && counter.getWarnings() > 0) {
+            throw new InvalidConfigurationException(counter.getWarnings() + " validation warnings, keeping the current config");
+        }
+        if (hash != null) {
+            compiledConfig.save(hash, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses config.yml on a worker thread and publishes the result on the
+     * global region thread. The previous config stays live until the swap, and a file
+     * that fails to parse leaves it untouched.
+     */
+    public void reloadPluginConfigAsync(CommandSender sender) {
+        if (!reloadAsync(sender::sendMessage, false)) {
+            sender.sendMessage("A FoodAbilities reload is already in progress.");
+        }
+    }
+
+    /**
+     * Reload started by {@link ConfigWatcher} once config.yml has settled. Unlike
+     * the command it also rejects a file that logs validation warnings, and does not
+     * publish a snapshot equal to the live one. Returns false if a reload is already running.
+     */
+    boolean reloadChangedConfig() {
+        return reloadAsync(message -> getLogger().info(message), true);
+    }
+
+    /** Content hash of config.yml as used for config.bin, or null if it cannot be read. */
+    byte[] configHash() {
+        return compiledConfig == null ? null : compiledConfig.hash();
+    }
+
+    private boolean reloadAsync(Consumer<String> reply, boolean strict) {
+        if (!reloading.compareAndSet(false, true)) {
+            return false;
+        }
+        Bukkit.getAsyncScheduler().runNow(this, task -> {
+            ConfigSnapshot next;
+            long parseStart = metrics.start();
+            try {
+                next = compileConfig(getLogger(), strict);
+                registry.saveIfDirty();
+                metrics.record(HotPathMetrics.Handler.RELOAD_PARSE, parseStart);
+            } catch (Exception e) {
+                getLogger().warning("Failed to reload config.yml: " + e.getMessage());
+                reloading.set(false);
+                if (isEnabled()) {
+                    Bukkit.getGlobalRegionScheduler().run(this, t -> reply.accept("FoodAbilities reload failed: " + e.getMessage()));
+                }
+                return;
+            }
+            if (!isEnabled()) {
+                reloading.set(false);
+                return;
+            }
+            Bukkit.getGlobalRegionScheduler().run(this, t -> {
+                try {
+                    String changes = next.describeChangesFrom(snapshot);
+                    if (strict && changes.isEmpty()) {
+                        reply.accept("config.yml changed on disk but the resulting config is the same; nothing to apply.");
+                        return;
+                    }
+                    int changed = publishSnapshot(next);
+                    if (!changes.isEmpty()) {
+                        getLogger().info("Config changes: " + changes);
                     }
+                    reply.accept("FoodAbilities config reloaded (" + next.getAbilities().size()
+                        + " abilities, " + changed + " recipe changes).");
+                } finally {
+                    reloading.set(false);
                 }
+            });
+        });
+        return true;
+    }
+
+    /** The config.yml bundled in the jar, used for missing keys and when the file cannot be read. */
+    private YamlConfiguration defaultConfig() {
+        InputStream defaults = getResource("config.yml");
+        return defaults == null ? new YamlConfiguration()
+            : YamlConfiguration.loadConfiguration(new InputStreamReader(defaults, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Swaps in a new snapshot and applies the config recipe changes it implies.
+     * Must run on the global region (main) thread. Returns the number of recipes touched.
+     */
+    private int publishSnapshot(ConfigSnapshot next) {
+        long start = metrics.start();
+        ConfigSnapshot previous = this.snapshot;
+        // Templates are only served for the snapshot that built them; this just frees the old ones
+        if (next.getTemplateCacheSize() != resultTemplates.getMaxSize()) {
+            resultTemplates = new ResultTemplateCache(next.getTemplateCacheSize());
+        } else {
+            resultTemplates.invalidate();
+        }
+        this.snapshot = next;
+        int changed = applyRecipeChanges(previous, next);
+        if (triggers != null) {
+            triggers.rebuild();
+        }
+        metrics.record(HotPathMetrics.Handler.RELOAD_PUBLISH, start);
+        return changed;
+    }
+
+    private void startMetrics(PluginSettings settings) {
+        metrics.setEnabled(settings.getBoolean("metrics.enabled", true));
+        if (!metrics.isEnabled() || !settings.getBoolean("metrics.dump.enabled", false)) return;
+        boolean prometheus = "prometheus".equalsIgnoreCase(settings.getString("metrics.dump.format", "csv"));
+        long intervalSeconds = Math.max(1, settings.getLong("metrics.dump.interval-seconds", 60));
+        File file = new File(getDataFolder(), prometheus ? "metrics.prom" : "metrics.csv");
+        metricsDumpTask = Bukkit.getAsyncScheduler().runAtFixedRate(this,
+            task -> writeMetricsDump(file, prometheus), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void writeMetricsDump(File file, boolean prometheus) {
+        String text = prometheus ? metrics.toPrometheus() : metrics.toCsv();
+        try {
+            File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+            Files.write(tmp.toPath(), text.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            getLogger().warning("Failed to write metrics dump: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Diffs the config recipes of two snapshots and only removes or adds the
+     * keys that actually differ. The potion infusion recipe is re-registered
+     * only when the set of infusible materials changes. With recipe-sync.batch-resync enabled, players
+     * get one recipe-book resync at the end instead of one per change.
+     */
+    private int applyRecipeChanges(ConfigSnapshot previous, ConfigSnapshot next) {
+        boolean batch = next.isBatchRecipeResync();
+        int changed = 0;
+        Map<NamespacedKey, RecipeSpec> oldRecipes = previous.getRecipes();
+        Map<NamespacedKey, RecipeSpec> newRecipes = next.getRecipes();
+        for (RecipeSpec old : oldRecipes.values()) {
+            if (old.equals(newRecipes.get(old.getKey()))) continue;
+            if (registeredRecipes.remove(old.getKey())) {
+                Bukkit.removeRecipe(old.getKey(), !batch);
+                changed++;
             }
-            for (NamespacedKey k : toRemove) {
-                Bukkit.removeRecipe(k);
+        }
+        for (RecipeSpec spec : newRecipes.values()) {
+            if (spec.equals(oldRecipes.get(spec.getKey())) && registeredRecipes.contains(spec.getKey())) continue;
+            try {
+                if (Bukkit.addRecipe(buildConfigRecipe(spec), !batch)) {
+                    registeredRecipes.add(spec.getKey());
+                    changed++;
+                }
+            } catch (Exception e) {
+                getLogger().warning("Failed to register recipe " + spec.getKey() + ": " + e.getMessage());
             }
-        } catch (Throwable ignored) {}
+        }
+        List<Material> infusible = next.getMaterials().getInfusibleMaterials();
+        if (!registeredRecipes.contains(this.recipeKey)
+            || !infusible.equals(previous.getMaterials().getInfusibleMaterials())) {
+            registerDynamicRecipeInfo(infusible, !batch);
+            changed++;
+        }
+        if (batch && changed > 0) {
+            Bukkit.updateRecipes();
+        }
+        return changed;
+    }
 
-        // Register a broad shapeless recipe that matches: any potion + any edible
+    private void registerDynamicRecipeInfo(List<Material> infusible, boolean resend) {
+        // Register a broad shapeless recipe that matches: any potion + any infusible food
         // We then override the result dynamically in PrepareItemCraftEvent
         try {
-            Bukkit.removeRecipe(this.recipeKey);
+            Bukkit.removeRecipe(this.recipeKey, resend);
         } catch (Throwable ignored) {}
+        registeredRecipes.remove(this.recipeKey);
 
         ItemStack placeholder = new ItemStack(Material.BREAD);
         ItemMeta meta = placeholder.getItemMeta();
@@ -95,74 +376,39 @@ public class FoodAbilitiesPlugin extends JavaPlugin implements Listener {
         }
 
         ShapelessRecipe dynamic = new ShapelessRecipe(this.recipeKey, placeholder);
-        dynamic.addIngredient(new RecipeChoice.MaterialChoice(getPotionMaterials()));
-        dynamic.addIngredient(new RecipeChoice.MaterialChoice(getEdibleMaterials()));
-        Bukkit.addRecipe(dynamic);
-
-        // Register config recipes
-        if (getConfig().isList("recipes")) {
-            int idx = 0;
-            for (Map<?, ?> raw : getConfig().getMapList("recipes")) {
-                idx++;
-                try {
-                    registerConfigRecipe(raw, idx);
-                } catch (Exception e) {
-                    getLogger().warning("Failed to load recipe #" + idx + ": " + e.getMessage());
-                }
-            }
+        dynamic.addIngredient(new RecipeChoice.MaterialChoice(MaterialClassifier.getPotionMaterials()));
+        dynamic.addIngredient(new RecipeChoice.MaterialChoice(infusible));
+        if (Bukkit.addRecipe(dynamic, resend)) {
+            registeredRecipes.add(this.recipeKey);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private void registerConfigRecipe(Map<?, ?> raw, int idx) {
-        Object abilityObj = raw.get("ability");
-        String abilityId = abilityObj == null ? "" : String.valueOf(abilityObj).trim();
-        if (abilityId.isEmpty()) throw new IllegalArgumentException("recipe missing ability");
-        List<String> ingredients = (List<String>) raw.get("ingredients");
-        if (ingredients == null || ingredients.isEmpty()) throw new IllegalArgumentException("recipe missing ingredients");
-
-        NamespacedKey key = new NamespacedKey(this, "cfg_" + abilityId.toLowerCase(Locale.ROOT) + "_" + idx);
+    private ShapelessRecipe buildConfigRecipe(RecipeSpec spec) {
         ItemStack placeholder = new ItemStack(Material.BREAD);
         ItemMeta meta = placeholder.getItemMeta();
         if (meta != null) {
-            meta.setDisplayName("Infused Food: " + abilityId);
+            meta.setDisplayName("Infused Food: " + spec.getAbilityId());
             placeholder.setItemMeta(meta);
         }
 
-        ShapelessRecipe sr = new ShapelessRecipe(key, placeholder);
-        for (String ing : ingredients) {
-            Material m = Material.matchMaterial(ing);
-            if (m == null) throw new IllegalArgumentException("unknown material " + ing);
+        ShapelessRecipe sr = new ShapelessRecipe(spec.getKey(), placeholder);
+        for (Material m : spec.getIngredients()) {
             sr.addIngredient(m);
         }
-        Bukkit.addRecipe(sr);
-
-        // Optional result base material
-        Object resultObj = raw.get("result");
-        if (resultObj != null) {
-            Material base = Material.matchMaterial(String.valueOf(resultObj));
-            if (base != null && base.isEdible()) {
-                recipeBaseByKey.put(key.getKey(), base);
-            }
-        }
+        return sr;
     }
 
-    private List<Material> getPotionMaterials() {
-        return Arrays.asList(Material.POTION, Material.SPLASH_POTION, Material.LINGERING_POTION);
-    }
-
-    private List<Material> getEdibleMaterials() {
-        List<Material> edibles = new ArrayList<>();
-        for (Material m : Material.values()) {
-            if (m.isEdible()) {
-                edibles.add(m);
-            }
+    @EventHandler
+    public void onPrepareCraft(PrepareItemCraftEvent event) {
+        long start = metrics.start();
+        try {
+            prepareCraft(event);
+        } finally {
+            metrics.record(HotPathMetrics.Handler.PREPARE_CRAFT, start);
         }
-        return edibles;
     }
 
-    @EventHandler
-    public void onPrepareCraft(PrepareItemCraftEvent event) {
+    private void prepareCraft(PrepareItemCraftEvent event) {
         CraftingInventory inv = event.getInventory();
         Recipe recipe = inv.getRecipe();
         if (!(recipe instanceof ShapelessRecipe)) {
@@ -170,14 +416,17 @@ public class FoodAbilitiesPlugin extends JavaPlugin implements Listener {
         }
         ShapelessRecipe shapeless = (ShapelessRecipe) recipe;
         ItemStack[] matrix = inv.getMatrix();
+        ConfigSnapshot current = this.snapshot;
+        MaterialClassifier materials = current.getMaterials();
         if (this.recipeKey.equals(shapeless.getKey())) {
             ItemStack potion = null;
             ItemStack food = null;
             for (ItemStack stack : matrix) {
-                if (stack == null || stack.getType() == Material.AIR) continue;
-                if (isPotion(stack) && potion == null) {
+                if (stack == null) continue;
+                Material type = stack.getType();
+                if (materials.isPotion(type) && potion == null) {
                     potion = stack;
-                } else if (isEdible(stack) && food == null) {
+                } else if (materials.isInfusible(type) && food == null) {
                     food = stack;
                 }
             }
@@ -185,84 +434,185 @@ public class FoodAbilitiesPlugin extends JavaPlugin implements Listener {
                 inv.setResult(new ItemStack(Material.AIR));
                 return;
             }
-            ItemStack result = createInfusedFoodFromPotion(food, potion);
+            ItemStack result = createInfusedFoodFromPotion(food, potion, current);
             inv.setResult(result);
             return;
         }
 
-        if (shapeless.getKey().getKey().startsWith("cfg_")) {
-            String keyStr = shapeless.getKey().getKey();
-            String[] parts = keyStr.split("_");
-            if (parts.length >= 3) {
-                String abilityId = parts[1];
-                ItemStack baseFood = firstEdible(matrix);
-                if (baseFood == null) {
-                    Material configured = recipeBaseByKey.get(keyStr);
-                    baseFood = new ItemStack(configured != null && configured.isEdible() ? configured : Material.BREAD);
-                }
-                Ability ability = abilityById.get(abilityId.toLowerCase(Locale.ROOT));
-                if (ability != null) {
-                    inv.setResult(createInfusedFoodFromAbility(baseFood, ability));
-                }
+        RecipeResolver resolver = current.getRecipeIndex().get(shapeless.getKey());
+        if (resolver != null) {
+            ItemStack baseFood = firstInfusible(matrix, materials);
+            if (baseFood == null) {
+                baseFood = new ItemStack(resolver.getBaseMaterial());
+            }
+            inv.setResult(createInfusedFoodFromAbility(baseFood, resolver.getAbility(), current));
+        }
+    }
+
+    /**
+     * Shift-click crafting of our recipes in one pass: vanilla would replay
+     * prepare/craft once per item, so we compute the craftable count up
+     * front, consume the grid once and hand out pre-stacked results. Runs at
+     * HIGHEST so protection and economy plugins can still cancel the craft first.
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onCraft(CraftItemEvent event) {
+        if (!event.isShiftClick() || !(event.getWhoClicked() instanceof Player)) return;
+        Recipe recipe = event.getRecipe();
+        if (!(recipe instanceof ShapelessRecipe)) return;
+        NamespacedKey key = ((ShapelessRecipe) recipe).getKey();
+        if (!this.recipeKey.equals(key) && !snapshot.getRecipeIndex().containsKey(key)) return;
+
+        long start = metrics.start();
+        try {
+            craftBatch(event, (Player) event.getWhoClicked());
+        } finally {
+            metrics.record(HotPathMetrics.Handler.CRAFT_BATCH, start);
+        }
+    }
+
+    private void craftBatch(CraftItemEvent event, Player player) {
+        CraftingInventory inv = event.getInventory();
+        ItemStack result = inv.getResult();
+        if (result == null || result.getType() == Material.AIR) return;
+        event.setCancelled(true);
+
+        // Every non-empty slot of a shapeless recipe supplies one item per craft
+        ItemStack[] matrix = inv.getMatrix();
+        int crafts = Integer.MAX_VALUE;
+        for (ItemStack stack : matrix) {
+            if (stack != null && stack.getType() != Material.AIR) {
+                crafts = Math.min(crafts, stack.getAmount());
+            }
+        }
+        if (crafts == Integer.MAX_VALUE) return;
+        crafts = Math.min(crafts, roomFor(player.getInventory(), result));
+        if (crafts <= 0) return;
+
+        List<ItemStack> remainders = new ArrayList<>();
+        for (int i = 0; i < matrix.length; i++) {
+            ItemStack stack = matrix[i];
+            if (stack == null || stack.getType() == Material.AIR) continue;
+            Material remainder = stack.getType().getCraftingRemainingItem();
+            if (remainder != null) {
+                remainders.add(new ItemStack(remainder, crafts));
+            }
+            int left = stack.getAmount() - crafts;
+            if (left <= 0) {
+                matrix[i] = null;
+            } else {
+                stack.setAmount(left);
+            }
+        }
+        inv.setMatrix(matrix);
+
+        List<ItemStack> output = new ArrayList<>();
+        int maxStack = result.getMaxStackSize();
+        for (int remaining = crafts; remaining > 0; remaining -= maxStack) {
+            ItemStack part = result.clone();
+            part.setAmount(Math.min(maxStack, remaining));
+            output.add(part);
+        }
+        output.addAll(remainders);
+        Map<Integer, ItemStack> overflow = player.getInventory().addItem(output.toArray(new ItemStack[0]));
+        for (ItemStack leftover : overflow.values()) {
+            player.getWorld().dropItemNaturally(player.getLocation(), leftover);
+        }
+        player.updateInventory();
+
+        ItemMeta meta = infusedMeta(result);
+        if (meta != null) {
+            audit(AuditLog.Action.CRAFT, player, result, resolveInfusion(meta), crafts);
+        }
+    }
+
+    /** Audits plain (non-shift) crafts of infused foods once no one has cancelled them. */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCraftMonitor(CraftItemEvent event) {
+        if (audit == null || event.isShiftClick() || !(event.getWhoClicked() instanceof Player)) return;
+        ItemStack result = event.getInventory().getResult();
+        ItemMeta meta = infusedMeta(result);
+        if (meta == null) return;
+        audit(AuditLog.Action.CRAFT, (Player) event.getWhoClicked(), result, resolveInfusion(meta), result.getAmount());
+    }
+
+    /** How many copies of {@code item} fit in the player's main storage. */
+    private static int roomFor(PlayerInventory inventory, ItemStack item) {
+        int maxStack = item.getMaxStackSize();
+        int room = 0;
+        for (ItemStack slot : inventory.getStorageContents()) {
+            if (slot == null || slot.getType() == Material.AIR) {
+                room += maxStack;
+            } else if (slot.isSimilar(item)) {
+                room += Math.max(0, maxStack - slot.getAmount());
             }
         }
+        return room;
     }
 
-    private ItemStack firstEdible(ItemStack[] matrix) {
+    private ItemStack firstInfusible(ItemStack[] matrix, MaterialClassifier materials) {
         for (ItemStack s : matrix) {
-            if (s != null && s.getType() != Material.AIR && s.getType().isEdible()) return s;
+            if (s != null && materials.isInfusible(s.getType())) return s;
         }
         return null;
     }
 
-    private boolean isPotion(ItemStack stack) {
-        Material type = stack.getType();
-        return type == Material.POTION || type == Material.SPLASH_POTION || type == Material.LINGERING_POTION;
+    private ItemStack createInfusedFoodFromPotion(ItemStack food, ItemStack potion, ConfigSnapshot current) {
+        ItemMeta potionMeta = potion.getItemMeta();
+        PotionMeta pm = potionMeta instanceof PotionMeta ? (PotionMeta) potionMeta : null;
+        PotionType potionType = pm == null ? null : PotionEffectTable.baseOf(pm.getBasePotionType());
+        String potionName = potionType != null ? potionType.name() : ConfigSnapshot.UNKNOWN_POTION;
+        Material base = food.getType();
+        if (pm != null && pm.hasCustomEffects()) {
+            String fingerprint = CustomEffectCache.fingerprint(potionName, pm.getCustomEffects());
+            return resultTemplates.get(current, fingerprint, base,
+                () -> buildPotionTemplate(base, potionName, fingerprint, customEffects.sign(fingerprint), current));
+        }
+        return resultTemplates.get(current, potionType != null ? potionType : potionName, base,
+            () -> buildPotionTemplate(base, potionName, null, null, current));
     }
 
-    private boolean isEdible(ItemStack stack) {
-        Material type = stack.getType();
-        return type.isEdible();
+    /** {@code ability} must come from {@code current}, the snapshot the template is cached under. */
+    private ItemStack createInfusedFoodFromAbility(ItemStack baseFood, Ability ability, ConfigSnapshot current) {
+        Material base = baseFood.getType();
+        return resultTemplates.get(current, ability.getId(), base, () -> buildAbilityTemplate(base, ability, current));
     }
 
-    private ItemStack createInfusedFoodFromPotion(ItemStack food, ItemStack potion)
-    {
-        ItemStack result = new ItemStack(food.getType(), 1);
+    /**
+     * Template for a potion infusion; {@code fingerprint} and its signed form are
+     * set for potions with custom effects.
+     */
+    private ItemStack buildPotionTemplate(Material base, String potionName, String fingerprint, String signed,
+                                          ConfigSnapshot current) {
+        ItemStack result = new ItemStack(base, 1);
         ItemMeta meta = result.getItemMeta();
         if (meta == null) return result;
 
-        String potionName = "Potion";
-        PotionType potionType = getPotionType(potion);
-        if (potionType != null) {
-            potionName = potionType.name();
-        }
-
-        meta.setDisplayName("Infused " + toTitle(food.getType().name()) + " (" + potionName + ")");
+        meta.setDisplayName("Infused " + toTitle(base.name()) + " (" + potionName + ")");
         List<String> lore = new ArrayList<>();
         lore.add("Right-click or eat to gain infinite effects");
         lore.add("Infused with: " + potionName);
+        if (fingerprint != null) {
+            int custom = CustomEffectCache.customEffects(fingerprint, CustomEffectCache.maxAmplifier(current)).size();
+            lore.add("Plus " + custom + " custom effect" + (custom == 1 ? "" : "s") + " for the potion's duration");
+        }
         meta.setLore(lore);
         meta.addEnchant(Enchantment.LUCK, 1, true);
-        meta.setCustomModelData(90210); // marker
-
-        result.setItemMeta(meta);
-
-        // Store effect in persistent data via lore marker key in display name (simple)
-        // Note: For simplicity, we encode via ItemMeta persistent tags in namespaced key
-        ItemMeta im = result.getItemMeta();
-        if (im != null) {
-            im.getPersistentDataContainer().set(new NamespacedKey(this, "effect"), PersistentDataType.STRING, potionName);
-            result.setItemMeta(im);
+        meta.setCustomModelData(INFUSED_MODEL_DATA); // marker
+        tagInfusion(meta.getPersistentDataContainer(), current.getPotionInfusion(potionName), this.keyEffect, potionName);
+        if (fingerprint != null) {
+            meta.getPersistentDataContainer().set(this.keyCustomEffects, PersistentDataType.STRING, signed);
         }
+        result.setItemMeta(meta);
         return result;
     }
 
-    private ItemStack createInfusedFoodFromAbility(ItemStack baseFood, Ability ability) {
-        ItemStack result = new ItemStack(baseFood.getType(), 1);
+    private ItemStack buildAbilityTemplate(Material base, Ability ability, ConfigSnapshot current) {
+        ItemStack result = new ItemStack(base, 1);
         ItemMeta meta = result.getItemMeta();
         if (meta == null) return result;
         String title = ability.getDisplayName() == null || ability.getDisplayName().isEmpty()
-            ? ("Infused " + toTitle(baseFood.getType().name()))
+            ? ("Infused " + toTitle(base.name()))
             : ability.getDisplayName();
         meta.setDisplayName(title);
         List<String> lore = new ArrayList<>();
@@ -270,23 +620,25 @@ public class FoodAbilitiesPlugin extends JavaPlugin implements Listener {
         if (lore.isEmpty()) lore.add("Right-click or eat to gain effects");
         meta.setLore(lore);
         meta.addEnchant(Enchantment.LUCK, 1, true);
-        meta.setCustomModelData(90210);
-        result.setItemMeta(meta);
-        ItemMeta im = result.getItemMeta();
-        if (im != null) {
-            im.getPersistentDataContainer().set(this.keyAbilityId, PersistentDataType.STRING, ability.getId());
-            result.setItemMeta(im);
+        meta.setCustomModelData(INFUSED_MODEL_DATA);
+        Infusion infusion = current.getAbilityInfusion(ability.getId());
+        if (infusion != null) {
+            tagInfusion(meta.getPersistentDataContainer(), infusion, this.keyAbilityId, ability.getId());
         }
+        result.setItemMeta(meta);
         return result;
     }
 
-    private PotionType getPotionType(ItemStack potion) {
-        if (!(potion.getItemMeta() instanceof PotionMeta)) return null;
-        PotionMeta pm = (PotionMeta) potion.getItemMeta();
-        if (pm.getBasePotionData() != null) {
-            return pm.getBasePotionData().getType();
+    /**
+     * Stores the registry id, or the name under its pre-registry key when the
+     * registry has no id to give (see {@link AbilityRegistry#isFailed}).
+     */
+    private void tagInfusion(PersistentDataContainer pdc, Infusion infusion, NamespacedKey nameKey, String name) {
+        if (infusion.getId() > 0) {
+            pdc.set(this.keyInfusionId, PersistentDataType.INTEGER, infusion.getId());
+        } else {
+            pdc.set(nameKey, PersistentDataType.STRING, name);
         }
-        return null;
     }
 
     private String toTitle(String name) {
@@ -302,14 +654,37 @@ public class FoodAbilitiesPlugin extends JavaPlugin implements Listener {
 
     @EventHandler
     public void onInteract(PlayerInteractEvent event) {
+        long start = metrics.start();
+        try {
+            interact(event);
+        } finally {
+            metrics.record(HotPathMetrics.Handler.INTERACT, start);
+        }
+    }
+
+    private void interact(PlayerInteractEvent event) {
         Action action = event.getAction();
         if (action != Action.RIGHT_CLICK_AIR && action != Action.RIGHT_CLICK_BLOCK) return;
         ItemStack item = event.getItem();
-        if (item == null) return;
-        if (!isInfusedFood(item)) return;
+        ItemMeta meta = infusedMeta(item);
+        if (meta == null) return;
+        event.setCancelled(true);
 
         Player player = event.getPlayer();
-        applyEffects(player, item);
+        Infusion infusion = resolveInfusion(meta);
+        if (infusion != null) {
+            // Checked first since it touches no state: a click that would apply nothing
+            // must not start a cooldown or write limiter state
+            if (allActive(player, infusion.getEffects())) {
+                return;
+            }
+            // Auto-clicker bursts and cooldowns neither re-apply effects nor use up the item
+            if (limiter.tryAcquire(player.getUniqueId(), infusion, currentTick()) != ConsumptionLimiter.Result.ALLOWED) {
+                return;
+            }
+            applyEffects(player, infusion);
+        }
+        audit(AuditLog.Action.CONSUME, player, item, infusion, 1);
         // simulate consumption by reducing stack if player is not in creative
         if (!player.getGameMode().name().equalsIgnoreCase("CREATIVE")) {
             ItemStack hand = event.getItem();
@@ -322,123 +697,299 @@ public class FoodAbilitiesPlugin extends JavaPlugin implements Listener {
                 }
             }
         }
-        event.setCancelled(true);
     }
 
     @EventHandler
     public void onConsume(PlayerItemConsumeEvent event) {
-        ItemStack item = event.getItem();
-        if (!isInfusedFood(item)) return;
-        Player player = event.getPlayer();
-        applyEffects(player, item);
-        // Let normal food consumption proceed; effect application is extra
+        long start = metrics.start();
+        try {
+            ItemMeta meta = infusedMeta(event.getItem());
+            if (meta == null) return;
+            Player player = event.getPlayer();
+            Infusion infusion = resolveInfusion(meta);
+            if (infusion != null && !allActive(player, infusion.getEffects())) {
+                applyEffects(player, infusion);
+            }
+            audit(AuditLog.Action.CONSUME, player, event.getItem(), infusion, 1);
+            // Let normal food consumption proceed; effect application is extra
+        } finally {
+            metrics.record(HotPathMetrics.Handler.CONSUME, start);
+        }
     }
 
-    private boolean isInfusedFood(ItemStack stack) {
-        if (stack == null) return false;
+    /**
+     * Returns the meta of an infused food, or null for anything else. Items
+     * that are not infusible or carry no meta are rejected before any meta copy.
+     */
+    private ItemMeta infusedMeta(ItemStack stack) {
+        if (stack == null || !snapshot.getMaterials().isInfusible(stack.getType())) return null;
+        if (!stack.hasItemMeta()) return null;
         ItemMeta meta = stack.getItemMeta();
-        if (meta == null) return false;
-        if (!meta.hasCustomModelData() || meta.getCustomModelData() != 90210) return false;
-        return true;
+        if (meta == null) return null;
+        if (!meta.hasCustomModelData() || meta.getCustomModelData() != INFUSED_MODEL_DATA) return null;
+        return meta;
     }
 
-    private void applyEffects(Player player, ItemStack infusedFood) {
-        ItemMeta meta = infusedFood.getItemMeta();
-        if (meta == null) return;
-        String abilityId = meta.getPersistentDataContainer().get(this.keyAbilityId, PersistentDataType.STRING);
+    /**
+     * Tick number used for consumption limits. Folia has no single server
+     * tick, so there it is derived from wall time at 20 ticks per second.
+     */
+    private static int currentTick() {
+        return FOLIA ? (int) (System.nanoTime() / 50_000_000L) : Bukkit.getCurrentTick();
+    }
+
+    private static boolean isFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        limiter.forget(event.getPlayer().getUniqueId());
+    }
+
+    /** Reads the infusion stored on an item, or null if it no longer resolves. */
+    private Infusion resolveInfusion(ItemMeta meta) {
+        ConfigSnapshot current = this.snapshot;
+        PersistentDataContainer pdc = meta.getPersistentDataContainer();
+        Integer id = pdc.get(this.keyInfusionId, PersistentDataType.INTEGER);
+        if (id != null) {
+            String signed = pdc.get(this.keyCustomEffects, PersistentDataType.STRING);
+            return signed == null ? current.getInfusion(id) : customEffects.get(signed, current);
+        }
+        // Items infused before ability ids were registered, or while the registry had failed
+        String signed = pdc.get(this.keyCustomEffects, PersistentDataType.STRING);
+        if (signed != null) return customEffects.get(signed, current);
+        String abilityId = pdc.get(this.keyAbilityId, PersistentDataType.STRING);
         if (abilityId != null) {
-            Ability ability = abilityById.get(abilityId.toLowerCase(Locale.ROOT));
-            if (ability != null) {
-                for (PotionEffect effect : ability.getPotionEffects()) {
-                    player.addPotionEffect(effect);
-                }
-                return;
+            Infusion infusion = current.getAbilityInfusion(abilityId);
+            if (infusion != null) return infusion;
+        }
+        String potionName = pdc.get(this.keyEffect, PersistentDataType.STRING);
+        return potionName == null ? null : current.getPotionInfusion(potionName);
+    }
+
+    private void applyEffects(Player player, Infusion infusion) {
+        long start = metrics.start();
+        try {
+            // Effects are already merged to one per type, so a single batch call suffices
+            List<PotionEffect> effects = infusion.getEffects();
+            player.addPotionEffects(effects);
+            // Resolved when the snapshot was built, so consuming does no lookup here
+            Ability ability = infusion.getTriggerAbility();
+            if (sessions != null) {
+                sessions.grant(player, infusion.getSource(), effects, ability != null);
+            }
+            if (ability != null && triggers != null) {
+                triggers.hold(player, ability);
             }
+        } finally {
+            metrics.record(HotPathMetrics.Handler.APPLY_EFFECTS, start);
         }
+    }
+
+    private void audit(AuditLog.Action action, Player player, ItemStack item, Infusion infusion, int amount) {
+        AuditLog log = audit;
+        if (log == null) return;
+        log.record(action, player, infusion == null ? "" : infusion.getSource(),
+            item == null ? null : item.getType(), amount, currentTick());
+    }
 
-        String potionName = meta.getPersistentDataContainer().get(new NamespacedKey(this, "effect"), PersistentDataType.STRING);
-        if (potionName == null) return;
-        List<PotionEffect> effects = mapPotionToEffects(potionName);
-        for (PotionEffect effect : effects) {
-            player.addPotionEffect(effect);
+    /**
+     * Grants an ability as if its food had been consumed. Must run on the player's
+     * scheduler. Returns false if they already have all of it.
+     */
+    boolean grantAbility(Player player, Ability ability, Infusion infusion) {
+        boolean triggersHeld = ability.getTriggers().isEmpty()
+            || (triggers != null && triggers.holds(player, ability.getId()));
+        if (triggersHeld && allActive(player, infusion.getEffects())) return false;
+        applyEffects(player, infusion);
+        return true;
+    }
+
+    /**
+     * Takes an ability away again: its remembered session, triggers and infinite
+     * effects. Must run on the player's scheduler. Returns false if they did not have it.
+     */
+    boolean revokeAbility(Player player, Ability ability, Infusion infusion) {
+        boolean revoked = sessions != null
+            ? sessions.revoke(player, infusion.getSource())
+            : EffectSessionManager.removeInfinite(player, infusion.getEffects());
+        if (triggers != null && triggers.drop(player, ability.getId())) revoked = true;
+        return revoked;
+    }
+
+    /** True when every effect is already active at an equal or stronger level and at least as long. */
+    static boolean allActive(Player player, List<PotionEffect> effects) {
+        for (int i = 0, n = effects.size(); i < n; i++) {
+            PotionEffect wanted = effects.get(i);
+            PotionEffect active = player.getPotionEffect(wanted.getType());
+            if (active == null || active.getAmplifier() < wanted.getAmplifier()) return false;
+            boolean activeInfinite = active.getDuration() == PotionEffect.INFINITE_DURATION;
+            if (wanted.getDuration() == PotionEffect.INFINITE_DURATION) {
+                if (!activeInfinite) return false;
+            } else if (!activeInfinite && active.getDuration() < wanted.getDuration()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void sendStats(CommandSender sender) {
+        if (!metrics.isEnabled()) {
+            sender.sendMessage("FoodAbilities metrics are disabled (metrics.enabled).");
+            return;
+        }
+        sender.sendMessage("FoodAbilities handler stats (count, per second, p50/p99 ns):");
+        for (HotPathMetrics.Handler handler : HotPathMetrics.Handler.values()) {
+            sender.sendMessage(String.format(Locale.ROOT, "  %s: %d, %.1f/s, %d/%d",
+                handler.metricName(), metrics.count(handler), metrics.ratePerSecond(handler),
+                metrics.percentile(handler, 50), metrics.percentile(handler, 99)));
+        }
+    }
+
+    ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void sendAudit(CommandSender sender, String[] args) {
+        AuditLog log = audit;
+        if (log == null) {
+            sender.sendMessage("The audit log is disabled (audit.enabled).");
+            return;
+        }
+        int count = 10;
+        String player = null;
+        if (args.length >= 2) {
+            try {
+                count = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                player = args[1];
+            }
+        }
+        if (args.length == 3) player = args[2];
+        List<String> lines = log.recent(Math.max(1, Math.min(100, count)), player);
+        sender.sendMessage("FoodAbilities audit: " + lines.size() + " recent entries, newest first ("
+            + log.getDropped() + " dropped since start):");
+        for (String line : lines) {
+            sender.sendMessage("  " + line);
+        }
+    }
+
+    /** Current effects for a session source, or null if it no longer resolves. */
+    List<PotionEffect> sessionEffects(String source) {
+        ConfigSnapshot current = this.snapshot;
+        String id = EffectSessionManager.sourceId(source);
+        if (EffectSessionManager.isCustomSource(source)) {
+            Infusion custom = customEffects.get(id, current);
+            return custom == null ? null : custom.getEffects();
+        }
+        Infusion infusion = EffectSessionManager.isAbilitySource(source)
+            ? current.getAbilityInfusion(id)
+            : current.getPotionInfusion(id);
+        return infusion == null ? null : infusion.getEffects();
+    }
+
+    private void submitBulk(CommandSender sender, String[] args) {
+        BulkAbilityQueue.Mode mode = args[0].equalsIgnoreCase("grant") ? BulkAbilityQueue.Mode.GRANT : BulkAbilityQueue.Mode.REVOKE;
+        Ability ability = snapshot.getAbility(args[1]);
+        if (ability == null) {
+            sender.sendMessage("Unknown ability " + args[1] + ".");
+            return;
+        }
+        if (mode == BulkAbilityQueue.Mode.REVOKE && ability.getTriggers().isEmpty()
+            && !EffectSessionManager.hasInfinite(ability.getPotionEffects())) {
+            sender.sendMessage("Nothing to revoke for " + ability.getId() + " (finite effects only; they run out by themselves).");
+            return;
+        }
+        BulkAbilityQueue.Selection selection = BulkAbilityQueue.select(sender, args[2]);
+        if (selection == null) return;
+        if (selection.players.isEmpty()) {
+            sender.sendMessage("No players match " + args[2] + ".");
+            return;
         }
+        int ahead = bulk.submit(mode, ability.getId(), selection, sender);
+        sender.sendMessage((mode == BulkAbilityQueue.Mode.GRANT ? "Granting " : "Revoking ") + ability.getId()
+            + " for " + (selection.filter == null ? "" : "up to ") + selection.players.size() + " players"
+            + (ahead > 0 ? " after " + ahead + " queued jobs." : "."));
+    }
 
+    /** Checks {@code foodabilities.<node>}, telling the sender when it is missing. */
+    private static boolean permitted(CommandSender sender, String node) {
+        if (sender.hasPermission("foodabilities." + node)) return true;
+        sender.sendMessage("You do not have permission to do that.");
+        return false;
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!"foodabilities".equalsIgnoreCase(label)) return false;
         if (args.length == 1 && args[0].equalsIgnoreCase("reload")) {
-            reloadPluginConfig();
-            registerDynamicRecipeInfo();
-            sender.sendMessage("FoodAbilities config reloaded.");
+            if (!permitted(sender, "reload")) return true;
+            reloadPluginConfigAsync(sender);
+            return true;
+        }
+        if (args.length == 1 && args[0].equalsIgnoreCase("cache")) {
+            if (!permitted(sender, "stats")) return true;
+            ResultTemplateCache cache = resultTemplates;
+            sender.sendMessage("Result templates: " + cache.size() + "/" + cache.getMaxSize()
+                + " cached, " + cache.getHits() + " hits, " + cache.getMisses() + " misses");
+            sender.sendMessage("Custom potion effect sets: " + customEffects.size() + "/" + customEffects.getMaxSize() + " cached");
             return true;
         }
-        sender.sendMessage("Usage: /foodabilities reload");
+        if ((args.length == 2 || args.length == 3) && args[0].equalsIgnoreCase("session")) {
+            if (!permitted(sender, "sessions")) return true;
+            if (sessions == null) {
+                sender.sendMessage("Effect sessions are disabled.");
+                return true;
+            }
+            Player target = Bukkit.getPlayerExact(args[1]);
+            if (target == null) {
+                sender.sendMessage("Player " + args[1] + " is not online.");
+                return true;
+            }
+            if (args.length == 3 && args[2].equalsIgnoreCase("clear")) {
+                EffectSessionManager current = sessions;
+                TriggerEngine currentTriggers = triggers;
+                // Potion state belongs to the player's region
+                target.getScheduler().run(this, t -> {
+                    if (currentTriggers != null) currentTriggers.release(target);
+                    int revoked = current.revokeAll(target);
+                    sender.sendMessage("Revoked " + revoked + " abilities from " + target.getName() + ".");
+                }, null);
+                return true;
+            }
+            List<String> sources = sessions.getSources(target.getUniqueId());
+            sender.sendMessage(target.getName() + " has " + sources.size() + " active abilities"
+                + (sources.isEmpty() ? "." : ": " + String.join(", ", sources)));
+            return true;
+        }
+        if (args.length == 3 && (args[0].equalsIgnoreCase("grant") || args[0].equalsIgnoreCase("revoke"))) {
+            if (!permitted(sender, args[0].toLowerCase(Locale.ROOT))) return true;
+            submitBulk(sender, args);
+            return true;
+        }
+        if (args.length >= 1 && args.length <= 3 && args[0].equalsIgnoreCase("audit")) {
+            if (!permitted(sender, "audit")) return true;
+            sendAudit(sender, args);
+            return true;
+        }
+        if ((args.length == 1 || args.length == 2) && args[0].equalsIgnoreCase("stats")) {
+            if (!permitted(sender, "stats")) return true;
+            if (args.length == 2 && args[1].equalsIgnoreCase("reset")) {
+                metrics.reset();
+                sender.sendMessage("FoodAbilities stats reset.");
+                return true;
+            }
+            sendStats(sender);
+            return true;
+        }
+        sender.sendMessage("Usage: /foodabilities <reload|cache|stats [reset]|session <player> [clear]|audit [count] [player]"
+            + "|grant|revoke <ability> <player|@a|world:<name>|radius:<blocks>>>");
         return true;
     }
-
-    private List<PotionEffect> mapPotionToEffects(String potionName) {
-        int infiniteTicks = 1_000_000_000; // ~13 days of in-game time
-        int amplifierMax = 9; // level 10 (0-indexed)
-        List<PotionEffect> list = new ArrayList<>();
-        PotionType type;
-        try {
-            type = PotionType.valueOf(potionName);
-        } catch (IllegalArgumentException e) {
-            type = null;
-        }
-        if (type == null) {
-            // Default: give speed, fire resistance as requested
-            list.add(new PotionEffect(PotionEffectType.SPEED, infiniteTicks, amplifierMax, true, false, true));
-            list.add(new PotionEffect(PotionEffectType.FIRE_RESISTANCE, infiniteTicks, 0, true, false, true));
-            return list;
-        }
-
-        switch (type) {
-            case SPEED:
-                list.add(new PotionEffect(PotionEffectType.SPEED, infiniteTicks, amplifierMax, true, false, true));
-                break;
-            case FIRE_RESISTANCE:
-                list.add(new PotionEffect(PotionEffectType.FIRE_RESISTANCE, infiniteTicks, 0, true, false, true));
-                break;
-            case STRENGTH:
-                list.add(new PotionEffect(PotionEffectType.INCREASE_DAMAGE, infiniteTicks, amplifierMax, true, false, true));
-                break;
-            case INSTANT_HEAL:
-                list.add(new PotionEffect(PotionEffectType.HEALTH_BOOST, infiniteTicks, amplifierMax, true, false, true));
-                list.add(new PotionEffect(PotionEffectType.REGENERATION, infiniteTicks, amplifierMax, true, false, true));
-                break;
-            case JUMP:
-                list.add(new PotionEffect(PotionEffectType.JUMP, infiniteTicks, amplifierMax, true, false, true));
-                break;
-            case NIGHT_VISION:
-                list.add(new PotionEffect(PotionEffectType.NIGHT_VISION, infiniteTicks, 0, true, false, true));
-                break;
-            case WATER_BREATHING:
-                list.add(new PotionEffect(PotionEffectType.WATER_BREATHING, infiniteTicks, 0, true, false, true));
-                break;
-            case INVISIBILITY:
-                list.add(new PotionEffect(PotionEffectType.INVISIBILITY, infiniteTicks, 0, true, false, true));
-                break;
-            case REGEN:
-                list.add(new PotionEffect(PotionEffectType.REGENERATION, infiniteTicks, amplifierMax, true, false, true));
-                break;
-            case SLOW_FALLING:
-                list.add(new PotionEffect(PotionEffectType.SLOW_FALLING, infiniteTicks, 0, true, false, true));
-                break;
-            case LUCK:
-                list.add(new PotionEffect(PotionEffectType.LUCK, infiniteTicks, amplifierMax, true, false, true));
-                break;
-            case TURTLE_MASTER:
-                list.add(new PotionEffect(PotionEffectType.DAMAGE_RESISTANCE, infiniteTicks, amplifierMax, true, false, true));
-                list.add(new PotionEffect(PotionEffectType.SLOW, infiniteTicks, amplifierMax, true, false, true));
-                break;
-            default:
-                // Fallback
-                list.add(new PotionEffect(PotionEffectType.SPEED, infiniteTicks, amplifierMax, true, false, true));
-                list.add(new PotionEffect(PotionEffectType.FIRE_RESISTANCE, infiniteTicks, 0, true, false, true));
-        }
-        return list;
-    }
 }
@@ -0,0 +1,112 @@
+package com.example.foodabilities;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-handler call counters and latency histograms. Cheap enough to leave on:
+ * a disabled instance skips even the clock reads.
+ */
+final class HotPathMetrics {
+
+    enum Handler {
+        PREPARE_CRAFT,
+        CRAFT_BATCH,
+        INTERACT,
+        CONSUME,
+        APPLY_EFFECTS,
+        TRIGGER,
+        RELOAD_PARSE,
+        RELOAD_PUBLISH;
+
+        String metricName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Map<Handler, LongAdder> counts = new EnumMap<>(Handler.class);
+    private final Map<Handler, LatencyHistogram> latencies = new EnumMap<>(Handler.class);
+    private volatile boolean enabled = true;
+    private volatile long resetAtNanos = System.nanoTime();
+
+    HotPathMetrics() {
+        for (Handler handler : Handler.values()) {
+            counts.put(handler, new LongAdder());
+            latencies.put(handler, new LatencyHistogram());
+        }
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Start timestamp for {@link #record}, or 0 when metrics are off. */
+    long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    void record(Handler handler, long start) {
+        if (start == 0L) return;
+        counts.get(handler).increment();
+        latencies.get(handler).record(System.nanoTime() - start);
+    }
+
+    long count(Handler handler) {
+        return counts.get(handler).sum();
+    }
+
+    long percentile(Handler handler, double percentile) {
+        return latencies.get(handler).percentile(percentile);
+    }
+
+    /** Average calls per second since the last reset. */
+    double ratePerSecond(Handler handler) {
+        double seconds = (System.nanoTime() - resetAtNanos) / 1_000_000_000.0;
+        return seconds <= 0 ? 0 : count(handler) / seconds;
+    }
+
+    void reset() {
+        for (Handler handler : Handler.values()) {
+            counts.get(handler).reset();
+            latencies.get(handler).reset();
+        }
+        resetAtNanos = System.nanoTime();
+    }
+
+    String toCsv() {
+        StringBuilder sb = new StringBuilder("handler,count,rate_per_sec,p50_ns,p99_ns,max_ns\n");
+        for (Handler handler : Handler.values()) {
+            sb.append(handler.metricName()).append(',')
+                .append(count(handler)).append(',')
+                .append(String.format(Locale.ROOT, "%.2f", ratePerSecond(handler))).append(',')
+                .append(percentile(handler, 50)).append(',')
+                .append(percentile(handler, 99)).append(',')
+                .append(percentile(handler, 100)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    String toPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# TYPE foodabilities_calls_total counter\n");
+        for (Handler handler : Handler.values()) {
+            sb.append("foodabilities_calls_total{handler=\"").append(handler.metricName()).append("\"} ")
+                .append(count(handler)).append('\n');
+        }
+        sb.append("# TYPE foodabilities_latency_nanos summary\n");
+        for (Handler handler : Handler.values()) {
+            for (double q : new double[] {50, 99}) {
+                sb.append("foodabilities_latency_nanos{handler=\"").append(handler.metricName())
+                    .append("\",quantile=\"").append(q / 100).append("\"} ")
+                    .append(percentile(handler, q)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.foodabilities;
+
+import org.bukkit.potion.PotionEffect;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What eating an infused food grants, resolved against one config snapshot:
+ * the effects plus the consumption limits that apply to them.
+ */
+final class Infusion {
+    /** Id of infusions that have no registry entry. */
+    static final int NO_ID = -1;
+
+    private final int id;
+    private final String source;
+    private final List<PotionEffect> effects;
+    private final int cooldownTicks;
+    private final int coalesceTicks;
+    private final Ability triggerAbility;
+
+    Infusion(int id, String source, List<PotionEffect> effects, int cooldownTicks, int coalesceTicks) {
+        this(id, source, effects, cooldownTicks, coalesceTicks, null);
+    }
+
+    Infusion(int id, String source, List<PotionEffect> effects, int cooldownTicks, int coalesceTicks, Ability ability) {
+        this.id = id;
+        this.source = Objects.requireNonNull(source, "source");
+        this.effects = Objects.requireNonNull(effects, "effects");
+        this.cooldownTicks = Math.max(0, cooldownTicks);
+        this.coalesceTicks = Math.max(0, coalesceTicks);
+        this.triggerAbility = ability == null || ability.getTriggers().isEmpty() ? null : ability;
+    }
+
+    /** Registry id stored on items, see {@link AbilityRegistry}. */
+    int getId() {
+        return id;
+    }
+
+    /** Session source key, see {@link EffectSessionManager#abilitySource}. */
+    String getSource() {
+        return source;
+    }
+
+    List<PotionEffect> getEffects() {
+        return effects;
+    }
+
+    int getCooldownTicks() {
+        return cooldownTicks;
+    }
+
+    int getCoalesceTicks() {
+        return coalesceTicks;
+    }
+
+    /** The ability whose triggers consuming this grants, or null if it has none. */
+    Ability getTriggerAbility() {
+        return triggerAbility;
+    }
+}
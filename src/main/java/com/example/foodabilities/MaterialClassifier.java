@@ -0,0 +1,83 @@
+package com.example.foodabilities;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-Material flags indexed by {@code Material.ordinal()}, so handlers test a
+ * byte instead of re-deriving edibility for every stack. The vanilla table is
+ * computed once on first use; config-declared extras produce a copy.
+ */
+final class MaterialClassifier {
+    private static final byte EDIBLE = 1;
+    private static final byte POTION = 1 << 1;
+    private static final byte EXTRA_INFUSIBLE = 1 << 2;
+    private static final byte INFUSIBLE = EDIBLE | EXTRA_INFUSIBLE;
+
+    private final byte[] flags;
+    private final List<Material> infusibleMaterials;
+
+    private MaterialClassifier(byte[] flags) {
+        this.flags = flags;
+        List<Material> infusible = new ArrayList<>();
+        Material[] materials = Material.values();
+        for (int i = 0; i < materials.length; i++) {
+            if ((flags[i] & INFUSIBLE) != 0) infusible.add(materials[i]);
+        }
+        this.infusibleMaterials = Collections.unmodifiableList(infusible);
+    }
+
+    private static final class VanillaHolder {
+        static final MaterialClassifier INSTANCE = computeVanilla();
+    }
+
+    static MaterialClassifier vanilla() {
+        return VanillaHolder.INSTANCE;
+    }
+
+    private static MaterialClassifier computeVanilla() {
+        Material[] materials = Material.values();
+        byte[] flags = new byte[materials.length];
+        for (Material m : materials) {
+            if (m.isLegacy()) continue;
+            if (m.isEdible()) flags[m.ordinal()] |= EDIBLE;
+        }
+        flags[Material.POTION.ordinal()] |= POTION;
+        flags[Material.SPLASH_POTION.ordinal()] |= POTION;
+        flags[Material.LINGERING_POTION.ordinal()] |= POTION;
+        return new MaterialClassifier(flags);
+    }
+
+    /** Copy of this table that also treats the given materials as infusible. */
+    MaterialClassifier withInfusible(Collection<Material> extra) {
+        if (extra.isEmpty()) return this;
+        byte[] copy = Arrays.copyOf(flags, flags.length);
+        for (Material m : extra) {
+            copy[m.ordinal()] |= EXTRA_INFUSIBLE;
+        }
+        return new MaterialClassifier(copy);
+    }
+
+    /** Edible, or declared infusible in config. */
+    boolean isInfusible(Material material) {
+        return (flags[material.ordinal()] & INFUSIBLE) != 0;
+    }
+
+    boolean isPotion(Material material) {
+        return (flags[material.ordinal()] & POTION) != 0;
+    }
+
+    /** Infusible materials in ordinal order, for recipe choices. */
+    List<Material> getInfusibleMaterials() {
+        return infusibleMaterials;
+    }
+
+    static List<Material> getPotionMaterials() {
+        return Arrays.asList(Material.POTION, Material.SPLASH_POTION, Material.LINGERING_POTION);
+    }
+}
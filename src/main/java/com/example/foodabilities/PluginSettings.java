@@ -0,0 +1,78 @@
+package com.example.foodabilities;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Scalar plugin settings from config.yml, i.e. everything outside the ability,
+ * potion and recipe catalogs, by dotted path. They live on the snapshot and in
+ * config.bin, so a cache hit starts the plugin without parsing any YAML.
+ */
+final class PluginSettings {
+    static final PluginSettings EMPTY = new PluginSettings(Collections.emptyMap());
+
+    private static final Set<String> CATALOG = new HashSet<>(Arrays.asList(
+        "abilities", "potion-effects", "recipes", "infusible-materials"));
+
+    private final Map<String, String> values;
+
+    private PluginSettings(Map<String, String> values) {
+        this.values = values;
+    }
+
+    static PluginSettings fromSection(ConfigurationSection config) {
+        Map<String, String> values = new TreeMap<>();
+        for (String path : config.getKeys(true)) {
+            int dot = path.indexOf('.');
+            if (CATALOG.contains(dot < 0 ? path : path.substring(0, dot))) continue;
+            Object value = config.get(path);
+            if (value == null || value instanceof ConfigurationSection || value instanceof List) continue;
+            values.put(path, String.valueOf(value));
+        }
+        return of(values);
+    }
+
+    /** Settings read back from {@link CompiledConfigCache}. */
+    static PluginSettings of(Map<String, String> values) {
+        return new PluginSettings(Collections.unmodifiableMap(new TreeMap<>(values)));
+    }
+
+    /** Every setting by path, in path order. */
+    Map<String, String> asMap() {
+        return values;
+    }
+
+    String getString(String path, String def) {
+        String value = values.get(path);
+        return value != null ? value : def;
+    }
+
+    boolean getBoolean(String path, boolean def) {
+        String value = values.get(path);
+        if ("true".equalsIgnoreCase(value)) return true;
+        if ("false".equalsIgnoreCase(value)) return false;
+        return def;
+    }
+
+    int getInt(String path, int def) {
+        long value = getLong(path, def);
+        return value == (int) value ? (int) value : def;
+    }
+
+    long getLong(String path, long def) {
+        String value = values.get(path);
+        if (value == null) return def;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.foodabilities;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+import org.bukkit.potion.PotionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Immutable mapping from an infused potion type to the effects it grants.
+ * Built once per config load so consumption is a lookup with no allocation.
+ */
+final class PotionEffectTable {
+    private static final int INFINITE_TICKS = PotionEffect.INFINITE_DURATION;
+    private static final int AMPLIFIER_MAX = 9; // level 10 (0-indexed)
+    private static final Map<String, PotionType> TYPES_BY_NAME = new HashMap<>();
+    private static final Map<PotionType, PotionType> BASE_TYPES = new EnumMap<>(PotionType.class);
+
+    static {
+        Map<String, PotionType> byKey = new HashMap<>();
+        for (PotionType type : PotionType.values()) {
+            TYPES_BY_NAME.put(type.name(), type);
+            byKey.put(type.getKey().getKey(), type);
+        }
+        // Variants are keyed long_<base> and strong_<base> (long_swiftness for SPEED's swiftness)
+        for (PotionType type : PotionType.values()) {
+            String key = type.getKey().getKey();
+            String baseKey = key.startsWith("long_") ? key.substring("long_".length())
+                : key.startsWith("strong_") ? key.substring("strong_".length())
+                : key;
+            BASE_TYPES.put(type, byKey.getOrDefault(baseKey, type));
+        }
+    }
+
+    /**
+     * The plain type of a long or strong variant (LONG_SWIFTNESS becomes
+     * SPEED), so one config entry covers all three.
+     */
+    static PotionType baseOf(PotionType type) {
+        return type == null ? null : BASE_TYPES.getOrDefault(type, type);
+    }
+
+    private final Map<PotionType, List<PotionEffect>> effectsByType;
+    private final List<PotionEffect> fallback;
+
+    private PotionEffectTable(Map<PotionType, List<PotionEffect>> effectsByType, List<PotionEffect> fallback) {
+        this.effectsByType = effectsByType;
+        this.fallback = fallback;
+    }
+
+    /** Effects for a stored potion name; unknown or unmapped names get the fallback. */
+    List<PotionEffect> effectsFor(String potionName) {
+        PotionType type = potionName == null ? null : TYPES_BY_NAME.get(potionName);
+        return effectsFor(type);
+    }
+
+    List<PotionEffect> effectsFor(PotionType type) {
+        if (type == null) return fallback;
+        List<PotionEffect> effects = effectsByType.get(type);
+        return effects != null ? effects : fallback;
+    }
+
+    /** Effects of every mapped potion type, defaults included. */
+    Map<PotionType, List<PotionEffect>> getMapped() {
+        return Collections.unmodifiableMap(effectsByType);
+    }
+
+    /** Effects for potions without a mapping. */
+    List<PotionEffect> getFallback() {
+        return fallback;
+    }
+
+    static PotionEffectTable of(Map<PotionType, List<PotionEffect>> mapped, List<PotionEffect> fallback) {
+        EnumMap<PotionType, List<PotionEffect>> map = new EnumMap<>(PotionType.class);
+        for (Map.Entry<PotionType, List<PotionEffect>> entry : mapped.entrySet()) {
+            map.put(entry.getKey(), immutable(entry.getValue()));
+        }
+        return new PotionEffectTable(map, immutable(fallback));
+    }
+
+    /**
+     * Builds the table from the {@code potion-effects} section. Each key is a
+     * PotionType name (or {@code default}) holding an ability-style effect list;
+     * anything not configured keeps the built-in mapping.
+     */
+    static PotionEffectTable fromSection(ConfigurationSection section, Logger logger) {
+        EnumMap<PotionType, List<PotionEffect>> map = new EnumMap<>(PotionType.class);
+        putDefaults(map);
+        List<PotionEffect> fallback = defaultFallback();
+
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                List<PotionEffect> effects = immutable(Ability.parseEffects(section.getMapList(key)));
+                if ("default".equalsIgnoreCase(key)) {
+                    fallback = effects;
+                    continue;
+                }
+                PotionType type = TYPES_BY_NAME.get(key.toUpperCase(Locale.ROOT));
+                if (type == null) {
+                    logger.warning("Unknown potion type in potion-effects: " + key);
+                    continue;
+                }
+                map.put(type, effects);
+            }
+        }
+        return new PotionEffectTable(map, fallback);
+    }
+
+    static PotionEffectTable defaults() {
+        EnumMap<PotionType, List<PotionEffect>> map = new EnumMap<>(PotionType.class);
+        putDefaults(map);
+        return new PotionEffectTable(map, defaultFallback());
+    }
+
+    private static List<PotionEffect> defaultFallback() {
+        return List.of(
+            effect(PotionEffectType.SPEED, AMPLIFIER_MAX),
+            effect(PotionEffectType.FIRE_RESISTANCE, 0));
+    }
+
+    private static void putDefaults(Map<PotionType, List<PotionEffect>> map) {
+        map.put(PotionType.SPEED, List.of(effect(PotionEffectType.SPEED, AMPLIFIER_MAX)));
+        map.put(PotionType.FIRE_RESISTANCE, List.of(effect(PotionEffectType.FIRE_RESISTANCE, 0)));
+        map.put(PotionType.STRENGTH, List.of(effect(PotionEffectType.INCREASE_DAMAGE, AMPLIFIER_MAX)));
+        map.put(PotionType.INSTANT_HEAL, List.of(
+            effect(PotionEffectType.HEALTH_BOOST, AMPLIFIER_MAX),
+            effect(PotionEffectType.REGENERATION, AMPLIFIER_MAX)));
+        map.put(PotionType.JUMP, List.of(effect(PotionEffectType.JUMP, AMPLIFIER_MAX)));
+        map.put(PotionType.NIGHT_VISION, List.of(effect(PotionEffectType.NIGHT_VISION, 0)));
+        map.put(PotionType.WATER_BREATHING, List.of(effect(PotionEffectType.WATER_BREATHING, 0)));
+        map.put(PotionType.INVISIBILITY, List.of(effect(PotionEffectType.INVISIBILITY, 0)));
+        map.put(PotionType.REGEN, List.of(effect(PotionEffectType.REGENERATION, AMPLIFIER_MAX)));
+        map.put(PotionType.SLOW_FALLING, List.of(effect(PotionEffectType.SLOW_FALLING, 0)));
+        map.put(PotionType.LUCK, List.of(effect(PotionEffectType.LUCK, AMPLIFIER_MAX)));
+        map.put(PotionType.TURTLE_MASTER, List.of(
+            effect(PotionEffectType.DAMAGE_RESISTANCE, AMPLIFIER_MAX),
+            effect(PotionEffectType.SLOW, AMPLIFIER_MAX)));
+    }
+
+    private static PotionEffect effect(PotionEffectType type, int amplifier) {
+        return new PotionEffect(type, INFINITE_TICKS, amplifier, true, false, true);
+    }
+
+    private static List<PotionEffect> immutable(List<PotionEffect> effects) {
+        return Collections.unmodifiableList(new ArrayList<>(effects));
+    }
+}
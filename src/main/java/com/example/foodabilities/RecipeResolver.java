@@ -0,0 +1,28 @@
+package com.example.foodabilities;
+
+import org.bukkit.Material;
+
+import java.util.Objects;
+
+/**
+ * Precomputed lookup result for one of our config recipes, so the craft
+ * preview never has to parse the recipe key back into an ability id.
+ */
+final class RecipeResolver {
+    private final Ability ability;
+    private final Material baseMaterial;
+
+    RecipeResolver(Ability ability, Material baseMaterial) {
+        this.ability = Objects.requireNonNull(ability, "ability");
+        this.baseMaterial = baseMaterial == null ? Material.BREAD : baseMaterial;
+    }
+
+    Ability getAbility() {
+        return ability;
+    }
+
+    /** Base material used when the grid itself holds no edible item. */
+    Material getBaseMaterial() {
+        return baseMaterial;
+    }
+}
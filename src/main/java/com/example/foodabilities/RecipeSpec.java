@@ -0,0 +1,60 @@
+package com.example.foodabilities;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A validated config recipe, independent of the Bukkit recipe registry so it
+ * can be built off the main thread and compared across reloads.
+ */
+final class RecipeSpec {
+    private final NamespacedKey key;
+    private final String abilityId;
+    private final List<Material> ingredients;
+    private final Material baseMaterial;
+
+    RecipeSpec(NamespacedKey key, String abilityId, List<Material> ingredients, Material baseMaterial) {
+        this.key = Objects.requireNonNull(key, "key");
+        this.abilityId = Objects.requireNonNull(abilityId, "abilityId");
+        this.ingredients = Collections.unmodifiableList(new ArrayList<>(ingredients));
+        this.baseMaterial = baseMaterial;
+    }
+
+    NamespacedKey getKey() {
+        return key;
+    }
+
+    String getAbilityId() {
+        return abilityId;
+    }
+
+    List<Material> getIngredients() {
+        return ingredients;
+    }
+
+    /** Configured result base, or null when none was given. */
+    Material getBaseMaterial() {
+        return baseMaterial;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RecipeSpec)) return false;
+        RecipeSpec other = (RecipeSpec) o;
+        return key.equals(other.key)
+            && abilityId.equals(other.abilityId)
+            && ingredients.equals(other.ingredients)
+            && baseMaterial == other.baseMaterial;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, abilityId, ingredients, baseMaterial);
+    }
+}
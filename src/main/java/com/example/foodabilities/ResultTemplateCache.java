@@ -0,0 +1,103 @@
+package com.example.foodabilities;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU of fully built infused-food results, keyed by the infusion
+ * source (ability id or PotionType) and the base material. Callers always
+ * receive a clone, so templates are never mutated.
+ *
+ * <p>Each template remembers the snapshot it was built from and is only
+ * served for that snapshot, so a craft that races a reload cannot leave a
+ * template of the old config behind for the new one.
+ */
+final class ResultTemplateCache {
+    private static final class Entry {
+        final ConfigSnapshot snapshot;
+        final ItemStack template;
+
+        Entry(ConfigSnapshot snapshot, ItemStack template) {
+            this.snapshot = snapshot;
+            this.template = template;
+        }
+    }
+
+    private final int maxSize;
+    private final Map<Key, Entry> templates;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    ResultTemplateCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.templates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > ResultTemplateCache.this.maxSize;
+            }
+        };
+    }
+
+    /** The template for {@code source} and {@code base} under {@code snapshot}, built from it on a miss. */
+    synchronized ItemStack get(ConfigSnapshot snapshot, Object source, Material base, Supplier<ItemStack> builder) {
+        Key key = new Key(source, base);
+        Entry entry = templates.get(key);
+        if (entry != null && entry.snapshot == snapshot) {
+            hits.increment();
+            return entry.template.clone();
+        }
+        misses.increment();
+        ItemStack template = builder.get();
+        templates.put(key, new Entry(snapshot, template));
+        return template.clone();
+    }
+
+    synchronized void invalidate() {
+        templates.clear();
+    }
+
+    synchronized int size() {
+        return templates.size();
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    private static final class Key {
+        private final Object source;
+        private final Material base;
+
+        Key(Object source, Material base) {
+            this.source = Objects.requireNonNull(source, "source");
+            this.base = base;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return base == other.base && source.equals(other.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * source.hashCode() + (base == null ? 0 : base.hashCode());
+        }
+    }
+}
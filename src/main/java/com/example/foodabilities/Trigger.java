@@ -0,0 +1,169 @@
+package com.example.foodabilities;
+
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.potion.PotionEffect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * A conditional part of an ability: effects granted to the holder when an
+ * event happens ({@code melee_hit}, {@code fire_damage}) or for as long as
+ * they stand somewhere ({@code while_in} a world environment, world or biome).
+ */
+final class Trigger {
+
+    enum Type {
+        MELEE_HIT,
+        FIRE_DAMAGE,
+        WHILE_IN
+    }
+
+    private final Type type;
+    private final List<PotionEffect> effects;
+    private final World.Environment environment;
+    private final Set<String> worlds;
+    private final Set<Biome> biomes;
+
+    Trigger(Type type, List<PotionEffect> effects, World.Environment environment, Set<String> worlds, Set<Biome> biomes) {
+        this.type = type;
+        this.effects = Collections.unmodifiableList(new ArrayList<>(effects));
+        this.environment = environment;
+        this.worlds = worlds;
+        this.biomes = biomes;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    List<PotionEffect> getEffects() {
+        return effects;
+    }
+
+    /** Required world environment of a {@code while_in} trigger, or null for any. */
+    World.Environment getEnvironment() {
+        return environment;
+    }
+
+    /** Lower-case world names of a {@code while_in} trigger; empty for any. */
+    Set<String> getWorlds() {
+        return worlds;
+    }
+
+    /** Biomes of a {@code while_in} trigger; empty for any. */
+    Set<Biome> getBiomes() {
+        return biomes;
+    }
+
+    /** Whether a {@code while_in} condition has to look at the biome, which is the costly part. */
+    boolean needsBiome() {
+        return !biomes.isEmpty();
+    }
+
+    /** Whether a {@code while_in} trigger holds at this world and biome (biome may be null if unused). */
+    boolean matches(World world, Biome biome) {
+        if (environment != null && world.getEnvironment() != environment) return false;
+        if (!worlds.isEmpty() && !worlds.contains(world.getName().toLowerCase(Locale.ROOT))) return false;
+        return biomes.isEmpty() || biomes.contains(biome);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Trigger)) return false;
+        Trigger other = (Trigger) o;
+        return type == other.type
+            && effects.equals(other.effects)
+            && environment == other.environment
+            && worlds.equals(other.worlds)
+            && biomes.equals(other.biomes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, effects, environment, worlds, biomes);
+    }
+
+    /**
+     * Parses a {@code {on, effects, environment, worlds, biomes}} map, or
+     * returns null for an unknown trigger type or one without effects.
+     * Event triggers must give every effect a finite duration, since nothing
+     * removes their effects again; only {@code while_in} ends them on leaving.
+     */
+    static Trigger fromMap(Map<?, ?> map, String abilityId, Logger logger) {
+        Object on = map.get("on");
+        if (on == null) return null;
+        Type type;
+        try {
+            type = Type.valueOf(String.valueOf(on).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        Object rawEffects = map.get("effects");
+        if (!(rawEffects instanceof List)) return null;
+        List<Map<?, ?>> effectMaps = new ArrayList<>();
+        for (Object entry : (List<?>) rawEffects) {
+            if (entry instanceof Map) effectMaps.add((Map<?, ?>) entry);
+        }
+        List<PotionEffect> effects = Ability.parseEffects(effectMaps);
+        if (effects.isEmpty()) return null;
+        if (type != Type.WHILE_IN) {
+            for (PotionEffect effect : effects) {
+                if (effect.getDuration() == PotionEffect.INFINITE_DURATION) {
+                    logger.warning("Ability " + abilityId + ": " + type.name().toLowerCase(Locale.ROOT)
+                        + " trigger skipped, " + effect.getType().getName() + " needs a finite duration");
+                    return null;
+                }
+            }
+        }
+
+        World.Environment environment = null;
+        Set<String> worlds = Collections.emptySet();
+        Set<Biome> biomes = Collections.emptySet();
+        if (type == Type.WHILE_IN) {
+            Object env = map.get("environment");
+            if (env != null) {
+                try {
+                    environment = World.Environment.valueOf(String.valueOf(env).trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            worlds = new HashSet<>();
+            for (String name : stringList(map.get("worlds"))) {
+                worlds.add(name.toLowerCase(Locale.ROOT));
+            }
+            biomes = EnumSet.noneOf(Biome.class);
+            for (String name : stringList(map.get("biomes"))) {
+                try {
+                    biomes.add(Biome.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException ignored) {}
+            }
+            if (environment == null && worlds.isEmpty() && biomes.isEmpty()) return null;
+        }
+        return new Trigger(type, effects, environment, worlds, biomes);
+    }
+
+    private static List<String> stringList(Object value) {
+        List<String> out = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object o : (List<?>) value) {
+                if (o != null) out.add(String.valueOf(o));
+            }
+        } else if (value != null) {
+            out.add(String.valueOf(value));
+        }
+        return out;
+    }
+}
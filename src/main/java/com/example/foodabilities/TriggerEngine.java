@@ -0,0 +1,367 @@
+package com.example.foodabilities;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityPotionEffectEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fires ability triggers. Each trigger type keeps an index of only the online
+ * players holding an ability with that trigger, so a combat or move event for
+ * anyone else costs one map lookup. A player holds an ability's triggers from
+ * the moment they consume it until they quit, or across joins while it is
+ * remembered by {@link EffectSessionManager}.
+ *
+ * <p>Per-player state is rebuilt and evaluated on the player's own
+ * scheduler; the indexes themselves only ever hold immutable arrays.
+ */
+final class TriggerEngine implements Listener {
+    private static final Trigger[] NONE = new Trigger[0];
+
+    private final FoodAbilitiesPlugin plugin;
+    private final EffectSessionManager sessions;
+    private final HotPathMetrics metrics;
+    // Ability ids with triggers, per online holder
+    private final Map<UUID, Set<String>> held = new ConcurrentHashMap<>();
+    private final Map<UUID, Trigger[]> meleeHit = new ConcurrentHashMap<>();
+    private final Map<UUID, Trigger[]> fireDamage = new ConcurrentHashMap<>();
+    private final Map<UUID, Region> regions = new ConcurrentHashMap<>();
+    // Holders with a region re-evaluation already scheduled
+    private final Set<UUID> resetting = ConcurrentHashMap.newKeySet();
+
+    /** The while_in triggers of one player and which of them currently apply. */
+    private static final class Region {
+        final Trigger[] triggers;
+        final boolean[] inside;
+        final boolean needsBiome;
+
+        Region(Trigger[] triggers) {
+            this.triggers = triggers;
+            this.inside = new boolean[triggers.length];
+            boolean biome = false;
+            for (Trigger trigger : triggers) {
+                biome |= trigger.needsBiome();
+            }
+            this.needsBiome = biome;
+        }
+    }
+
+    TriggerEngine(FoodAbilitiesPlugin plugin, EffectSessionManager sessions, HotPathMetrics metrics) {
+        this.plugin = plugin;
+        this.sessions = sessions;
+        this.metrics = metrics;
+    }
+
+    /** Starts indexing an ability's triggers for a player. Must run on the player's scheduler. */
+    void hold(Player player, Ability ability) {
+        if (ability.getTriggers().isEmpty()) return;
+        String id = ability.getId().toLowerCase(Locale.ROOT);
+        Set<String> current = held.get(player.getUniqueId());
+        if (current != null && current.contains(id)) return;
+        held.compute(player.getUniqueId(), (uuid, ids) -> with(ids, id));
+        refresh(player);
+    }
+
+    /** Whether a player currently holds an ability's triggers. */
+    boolean holds(Player player, String abilityId) {
+        Set<String> current = held.get(player.getUniqueId());
+        return current != null && current.contains(abilityId.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Stops indexing one ability's triggers for a player and ends its active
+     * while_in effects. Must run on the player's scheduler. Returns whether they held it.
+     */
+    boolean drop(Player player, String abilityId) {
+        String id = abilityId.toLowerCase(Locale.ROOT);
+        if (!holds(player, id)) return false;
+        held.computeIfPresent(player.getUniqueId(), (uuid, ids) -> without(ids, id));
+        refresh(player);
+        return true;
+    }
+
+    /** Drops every trigger a player holds and ends active while_in effects. Must run on the player's scheduler. */
+    void release(Player player) {
+        UUID id = player.getUniqueId();
+        held.remove(id);
+        meleeHit.remove(id);
+        fireDamage.remove(id);
+        Region region = regions.remove(id);
+        if (region != null) {
+            for (int i = 0; i < region.triggers.length; i++) {
+                if (region.inside[i]) leave(player, region.triggers[i]);
+            }
+        }
+    }
+
+    /** Re-resolves every holder against the current snapshot, after a reload. */
+    void rebuild() {
+        for (UUID id : held.keySet()) {
+            Player player = Bukkit.getPlayer(id);
+            if (player == null) {
+                held.remove(id);
+                meleeHit.remove(id);
+                fireDamage.remove(id);
+                regions.remove(id);
+                continue;
+            }
+            player.getScheduler().run(plugin, t -> refresh(player), null);
+        }
+    }
+
+    /** Ends while_in effects for everyone, on disable. */
+    void clear() {
+        for (UUID id : new ArrayList<>(held.keySet())) {
+            Player player = Bukkit.getPlayer(id);
+            if (player != null) release(player);
+        }
+        held.clear();
+        meleeHit.clear();
+        fireDamage.clear();
+        regions.clear();
+    }
+
+    private static Set<String> with(Set<String> ids, String id) {
+        Set<String> copy = ids == null ? new LinkedHashSet<>(2) : new LinkedHashSet<>(ids);
+        copy.add(id);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    private static Set<String> without(Set<String> ids, String id) {
+        Set<String> copy = new LinkedHashSet<>(ids);
+        copy.remove(id);
+        return copy.isEmpty() ? null : Collections.unmodifiableSet(copy);
+    }
+
+    private void refresh(Player player) {
+        UUID id = player.getUniqueId();
+        ConfigSnapshot snapshot = plugin.getSnapshot();
+        List<Trigger> melee = new ArrayList<>();
+        List<Trigger> fire = new ArrayList<>();
+        List<Trigger> whileIn = new ArrayList<>();
+        for (String abilityId : held.getOrDefault(id, Collections.emptySet())) {
+            Ability ability = snapshot.getAbility(abilityId);
+            if (ability == null) continue;
+            for (Trigger trigger : ability.getTriggers()) {
+                if (trigger.getType() == Trigger.Type.MELEE_HIT) {
+                    melee.add(trigger);
+                } else if (trigger.getType() == Trigger.Type.FIRE_DAMAGE) {
+                    fire.add(trigger);
+                } else {
+                    whileIn.add(trigger);
+                }
+            }
+        }
+        index(meleeHit, id, melee);
+        index(fireDamage, id, fire);
+
+        Region previous = regions.remove(id);
+        Region next = whileIn.isEmpty() ? null : new Region(whileIn.toArray(NONE));
+        if (previous != null) {
+            for (int i = 0; i < previous.triggers.length; i++) {
+                if (!previous.inside[i]) continue;
+                int kept = next == null ? -1 : whileIn.indexOf(previous.triggers[i]);
+                if (kept >= 0) {
+                    next.inside[kept] = true;
+                } else {
+                    leave(player, previous.triggers[i]);
+                }
+            }
+        }
+        if (next != null) {
+            regions.put(id, next);
+            evaluate(player, next, player.getLocation());
+        }
+    }
+
+    private static void index(Map<UUID, Trigger[]> index, UUID id, List<Trigger> triggers) {
+        if (triggers.isEmpty()) {
+            index.remove(id);
+        } else {
+            index.put(id, triggers.toArray(NONE));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMeleeHit(EntityDamageByEntityEvent event) {
+        Trigger[] triggers = meleeHit.get(event.getDamager().getUniqueId());
+        if (triggers == null) return;
+        EntityDamageEvent.DamageCause cause = event.getCause();
+        if (cause != EntityDamageEvent.DamageCause.ENTITY_ATTACK
+            && cause != EntityDamageEvent.DamageCause.ENTITY_SWEEP_ATTACK) return;
+        if (event.getDamager() instanceof Player) {
+            fire((Player) event.getDamager(), triggers);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDamage(EntityDamageEvent event) {
+        Trigger[] triggers = fireDamage.get(event.getEntity().getUniqueId());
+        if (triggers == null) return;
+        EntityDamageEvent.DamageCause cause = event.getCause();
+        if (cause != EntityDamageEvent.DamageCause.FIRE
+            && cause != EntityDamageEvent.DamageCause.FIRE_TICK
+            && cause != EntityDamageEvent.DamageCause.LAVA
+            && cause != EntityDamageEvent.DamageCause.HOT_FLOOR) return;
+        if (event.getEntity() instanceof Player) {
+            fire((Player) event.getEntity(), triggers);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        Region region = regions.get(event.getPlayer().getUniqueId());
+        if (region == null || !event.hasChangedBlock()) return;
+        evaluate(event.getPlayer(), region, event.getTo());
+    }
+
+    @EventHandler
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        Region region = regions.get(event.getPlayer().getUniqueId());
+        if (region != null) evaluate(event.getPlayer(), region, event.getPlayer().getLocation());
+    }
+
+    /** Teleports have their own handler list, so {@link #onMove} never sees them. */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        Region region = regions.get(event.getPlayer().getUniqueId());
+        if (region != null) evaluate(event.getPlayer(), region, event.getTo());
+    }
+
+    @EventHandler
+    public void onRespawn(PlayerRespawnEvent event) {
+        scheduleReset(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPotionEffect(EntityPotionEffectEvent event) {
+        if (event.getCause() != EntityPotionEffectEvent.Cause.MILK) return;
+        if (event.getEntity() instanceof Player) {
+            scheduleReset((Player) event.getEntity());
+        }
+    }
+
+    /**
+     * Death and milk clear while_in effects without the player leaving the
+     * region, so once they are gone forget what applied and evaluate afresh.
+     * Milk fires once per removed effect; only the first schedules.
+     */
+    private void scheduleReset(Player player) {
+        UUID id = player.getUniqueId();
+        if (!regions.containsKey(id) || !resetting.add(id)) return;
+        player.getScheduler().run(plugin, t -> {
+            resetting.remove(id);
+            Region region = regions.get(id);
+            if (region == null) return;
+            Arrays.fill(region.inside, false);
+            evaluate(player, region, player.getLocation());
+        }, () -> resetting.remove(id));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        if (sessions == null) return;
+        Player player = event.getPlayer();
+        ConfigSnapshot snapshot = plugin.getSnapshot();
+        for (String source : sessions.getSources(player.getUniqueId())) {
+            if (!EffectSessionManager.isAbilitySource(source)) continue;
+            Ability ability = snapshot.getAbility(EffectSessionManager.sourceId(source));
+            if (ability != null) hold(player, ability);
+        }
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        // Ending while_in effects here keeps them out of saved player data
+        release(event.getPlayer());
+    }
+
+    private void fire(Player player, Trigger[] triggers) {
+        long start = metrics.start();
+        try {
+            for (Trigger trigger : triggers) {
+                if (!FoodAbilitiesPlugin.allActive(player, trigger.getEffects())) {
+                    player.addPotionEffects(trigger.getEffects());
+                }
+            }
+        } finally {
+            metrics.record(HotPathMetrics.Handler.TRIGGER, start);
+        }
+    }
+
+    private void evaluate(Player player, Region region, Location at) {
+        long start = metrics.start();
+        try {
+            World world = at.getWorld();
+            Biome biome = region.needsBiome ? world.getBiome(at.getBlockX(), at.getBlockY(), at.getBlockZ()) : null;
+            for (int i = 0; i < region.triggers.length; i++) {
+                Trigger trigger = region.triggers[i];
+                boolean now = trigger.matches(world, biome);
+                if (now == region.inside[i]) continue;
+                region.inside[i] = now;
+                if (now) {
+                    if (!FoodAbilitiesPlugin.allActive(player, trigger.getEffects())) {
+                        player.addPotionEffects(trigger.getEffects());
+                    }
+                } else {
+                    leave(player, trigger);
+                }
+            }
+        } finally {
+            metrics.record(HotPathMetrics.Handler.TRIGGER, start);
+        }
+    }
+
+    /**
+     * Removes a while_in trigger's effects, unless the active effect is not
+     * the one it granted or a remembered ability also grants that type.
+     */
+    private void leave(Player player, Trigger trigger) {
+        for (PotionEffect effect : trigger.getEffects()) {
+            PotionEffect active = player.getPotionEffect(effect.getType());
+            if (active == null || active.getAmplifier() != effect.getAmplifier()) continue;
+            if (effect.getDuration() == PotionEffect.INFINITE_DURATION
+                && active.getDuration() != PotionEffect.INFINITE_DURATION) continue;
+            if (grantedBySession(player, effect.getType())) continue;
+            player.removePotionEffect(effect.getType());
+        }
+    }
+
+    private boolean grantedBySession(Player player, PotionEffectType type) {
+        if (sessions == null) return false;
+        for (String source : sessions.getSources(player.getUniqueId())) {
+            List<PotionEffect> effects = plugin.sessionEffects(source);
+            if (effects == null) continue;
+            for (PotionEffect effect : effects) {
+                if (effect.getType().equals(type)) return true;
+            }
+        }
+        return false;
+    }
+}